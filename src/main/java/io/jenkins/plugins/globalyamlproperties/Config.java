@@ -9,30 +9,55 @@ import jenkins.model.Jenkins;
 import org.kohsuke.stapler.*;
 import org.kohsuke.stapler.verb.GET;
 import org.kohsuke.stapler.verb.POST;
-import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.Serializable;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 
 public class Config extends AbstractDescribableImpl<Config> implements Serializable {
 
+    // By source key, configs are recreated on every save while their sources keep the same key
+    private static final Map<String, ReentrantLock> REFRESH_LOCKS = new ConcurrentHashMap<>();
+
     private String name;
-    private String yamlConfig;
     private String category;
-    private HashMap<String, Object> configMap = new HashMap<>();
+    private String contentHash;
     private ConfigSource configSource;
+    // Text and tree of the last parse, rebuilt from the config source on demand.
+    // Older releases persisted both, such data is read once and dropped in readResolve
+    private transient volatile String yamlConfig;
+    private transient volatile Map<String, Object> configMap;
+    private transient boolean legacyDataMigrated;
 
     @DataBoundConstructor
     public Config(String name, String category, ConfigSource configSource) {
+        this(name, category, configSource, true);
+    }
+
+    private Config(String name, String category, ConfigSource configSource, boolean parse) {
         this.name = name;
         this.configSource = configSource;
         this.category = category;
-        this.yamlConfig = this.configSource.getYamlConfig();
-        parseConfiguration();
+        if (parse) {
+            this.yamlConfig = this.configSource.getYamlConfig();
+            parseConfiguration();
+        }
+    }
+
+    /**
+     * Creates a config that reads and parses its source on first use, see {@link #getConfigMap()}.
+     */
+    static Config lazy(String name, String category, ConfigSource configSource) {
+        return new Config(name, category, configSource, false);
     }
 
     @DataBoundSetter
@@ -59,34 +84,129 @@ public class Config extends AbstractDescribableImpl<Config> implements Serializa
     }
 
     public String getYamlConfig() {
-        return yamlConfig;
+        String yaml = this.yamlConfig;
+        return yaml != null ? yaml : configSource.getYamlConfig();
     }
 
     public ConfigSource getConfigSource() {
         return configSource;
     }
 
+    /**
+     * @return SHA-256 of the raw YAML this config was last parsed from
+     */
+    public String getContentHash() {
+        getConfigMap();
+        return contentHash;
+    }
+
     public Map<String, Object> getConfigMap() {
-        return this.configMap;
+        Map<String, Object> parsed = this.configMap;
+        if (parsed == null) {
+            parseConfiguration();
+            parsed = this.configMap;
+        }
+        return parsed;
+    }
+
+    /**
+     * @return {@code true} if {@link #getConfigMap()} returns without parsing
+     */
+    public boolean isParsed() {
+        return this.configMap != null;
+    }
+
+    boolean isLegacyDataMigrated() {
+        return legacyDataMigrated;
     }
 
-    public void refreshConfiguration() throws IOException {
+    protected Object readResolve() {
+        if (configMap != null || yamlConfig != null) {
+            configMap = null;
+            yamlConfig = null;
+            legacyDataMigrated = true;
+        }
+        return this;
+    }
+
+    /**
+     * @return the configs fanned out of this one by a {@link ConfigSourceGitDirectory}, empty for other sources
+     */
+    public List<Config> getGeneratedConfigs() {
+        return configSource instanceof ConfigSourceGitDirectory directory
+                ? directory.getConfigs(name, category) : Collections.emptyList();
+    }
+
+    public boolean refreshConfiguration() throws IOException {
+        try (GitHubSession session = new GitHubSession()) {
+            return refreshConfiguration(session);
+        }
+    }
+
+    /**
+     * Refreshes of the same remote source run one at a time, whether they come from a poll or a webhook,
+     * so the second one finds the content already fetched instead of racing the first.
+     *
+     * @return {@code false} if the source content was unchanged and parsing was skipped
+     */
+    public boolean refreshConfiguration(GitHubSession session) throws IOException {
+        if (!(getConfigSource() instanceof RemoteConfigSource source)) {
+            return refresh(session);
+        }
+        ReentrantLock lock = REFRESH_LOCKS.computeIfAbsent(source.getSourceKey(), k -> new ReentrantLock());
+        try {
+            lock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for another refresh of " + name);
+        }
+        try {
+            return refresh(session);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean refresh(GitHubSession session) throws IOException {
         Logger logger = Logger.getLogger(Config.class.getName());
         logger.info("Refreshing configuration for " + this.name);
-        if (getConfigSource() instanceof ConfigSourceSCM configSourceSCM) {
-            configSourceSCM.fetchConfiguration();
+        // The previous tree is only needed, and possibly re-read, when someone listens for changes
+        String previousHash = this.contentHash;
+        Map<String, Object> previous = ConfigChangeListener.all().isEmpty() ? null : previousConfigMap();
+        if (getConfigSource() instanceof RemoteConfigSource source) {
+            boolean changed = source.fetchConfiguration(session);
+            if (!changed && this.yamlConfig != null && this.yamlConfig.equals(source.getYamlConfig())) {
+                logger.fine("Configuration " + this.name + " is unchanged, skipping parsing");
+                return false;
+            }
         }
         parseConfiguration();
+        if (previous != null && !Objects.equals(previousHash, this.contentHash)) {
+            ConfigDiff diff = ConfigDiff.compute(previousHash, previous, this.contentHash, this.configMap);
+            if (!diff.isEmpty()) {
+                ConfigChangeListener.fireOnChanged(this, diff);
+            }
+        }
+        return true;
     }
 
-    public void parseConfiguration() {
-        Yaml parser = new Yaml();
-        this.yamlConfig = configSource.getYamlConfig();
-        if (this.yamlConfig == null || this.yamlConfig.isEmpty()) {
-            this.configMap = new HashMap<>();
-        } else {
-            this.configMap = parser.load(yamlConfig);
+    private Map<String, Object> previousConfigMap() {
+        Map<String, Object> parsed = this.configMap;
+        if (parsed != null) {
+            return parsed;
         }
+        try {
+            return YAMLParseCache.parseMap(configSource.getYamlConfig());
+        } catch (YAMLException e) {
+            return Collections.emptyMap();
+        }
+    }
+
+    public void parseConfiguration() {
+        String yaml = configSource.getYamlConfig();
+        this.configMap = YAMLParseCache.parseMap(yaml);
+        this.yamlConfig = yaml;
+        this.contentHash = yaml == null ? null : YAMLParseCache.contentHash(yaml);
     }
 
     @Extension
@@ -0,0 +1,37 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import hudson.ExtensionList;
+import hudson.ExtensionPoint;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Notified when a refresh changes the content of a global config. Listeners run on the refresh worker
+ * right after the new tree is published, so long-running reactions should be handed off to another thread.
+ */
+public abstract class ConfigChangeListener implements ExtensionPoint {
+
+    private static final Logger LOGGER = Logger.getLogger(ConfigChangeListener.class.getName());
+    private static final String LOG_PREFIX = "[GlobalYAMLPropertiesChange] ";
+
+    /**
+     * @param config the refreshed config, {@link Config#getConfigMap()} already returns the new tree
+     * @param diff   never empty
+     */
+    public abstract void onChanged(Config config, ConfigDiff diff);
+
+    public static ExtensionList<ConfigChangeListener> all() {
+        return ExtensionList.lookup(ConfigChangeListener.class);
+    }
+
+    static void fireOnChanged(Config config, ConfigDiff diff) {
+        for (ConfigChangeListener listener : all()) {
+            try {
+                listener.onChanged(config, diff);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, LOG_PREFIX + listener.getClass().getName() + " failed for " + config.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import hudson.Extension;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store of fetched SCM documents under {@code JENKINS_HOME/global-yaml-properties}.
+ * <p>
+ * {@code objects/} holds every document once, named by the SHA-256 of its text, next to a binary form of its
+ * parsed tree (see {@link YAMLBinaryCodec}). {@code refs/} holds one small pointer file per remote source naming
+ * the document it last fetched. A refresh only writes the documents that changed and their pointers,
+ * the global configuration file no longer carries any fetched text.
+ */
+public final class ConfigContentStore {
+
+    private static final Logger LOGGER = Logger.getLogger(ConfigContentStore.class.getName());
+    private static final String LOG_PREFIX = "[GlobalYAMLPropertiesStore] ";
+
+    // Documents younger than this are kept even if unreferenced, a refresh may be about to point a ref at them
+    static final long PRUNE_GRACE_PERIOD = TimeUnit.HOURS.toMillis(1);
+
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final String TEXT_SUFFIX = ".yaml";
+    private static final String BINARY_SUFFIX = ".bin";
+    private static final String REF_SUFFIX = ".properties";
+
+    private static volatile ConfigContentStore instance;
+
+    private final Path root;
+    private final Path objects;
+    private final Path refs;
+
+    ConfigContentStore(Path root) {
+        this.root = root;
+        this.objects = root.resolve("objects");
+        this.refs = root.resolve("refs");
+    }
+
+    public static ConfigContentStore get() {
+        Path root = Jenkins.get().getRootDir().toPath().resolve("global-yaml-properties");
+        ConfigContentStore store = instance;
+        if (store == null || !store.root.equals(root)) {
+            store = new ConfigContentStore(root);
+            instance = store;
+        }
+        return store;
+    }
+
+    Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Last document fetched for a source.
+     */
+    record SourceRef(String contentHash, String blobSha) {
+    }
+
+    SourceRef readRef(String sourceKey) throws IOException {
+        Properties properties = readProperties(refFile(sourceKey));
+        if (properties == null || !sourceKey.equals(properties.getProperty("source"))) {
+            return null;
+        }
+        String contentHash = properties.getProperty("content");
+        return contentHash == null || !CONTENT_HASH.matcher(contentHash).matches() ? null : new SourceRef(contentHash, properties.getProperty("blob"));
+    }
+
+    /**
+     * Reads a document and primes {@link YAMLParseCache} with its binary tree, so it does not need to be parsed again.
+     *
+     * @return the text, or {@code null} if the store does not have the document
+     */
+    String readDocument(String contentHash) throws IOException {
+        Path textFile = objectFile(contentHash, TEXT_SUFFIX);
+        if (!Files.exists(textFile)) {
+            return null;
+        }
+        String text = Files.readString(textFile, StandardCharsets.UTF_8);
+        Path binaryFile = objectFile(contentHash, BINARY_SUFFIX);
+        if (Files.exists(binaryFile)) {
+            try {
+                YAMLParseCache.prime(contentHash, YAMLBinaryCodec.decode(Files.readAllBytes(binaryFile)), text.length());
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, LOG_PREFIX + "Ignoring unreadable binary form of " + contentHash, e);
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Stores the document fetched for a source, writing the document itself only if the store does not have it yet.
+     */
+    void write(String sourceKey, String text, String blobSha) throws IOException {
+        String contentHash = YAMLParseCache.contentHash(text);
+        Path textFile = objectFile(contentHash, TEXT_SUFFIX);
+        if (!Files.exists(textFile)) {
+            try {
+                writeAtomically(objectFile(contentHash, BINARY_SUFFIX), YAMLBinaryCodec.encode(YAMLParseCache.parse(text)));
+            } catch (YAMLException | IllegalArgumentException e) {
+                // Invalid YAML or unusual types, the text alone is enough
+                LOGGER.log(Level.FINE, LOG_PREFIX + "Storing " + contentHash + " without binary form", e);
+            }
+            writeAtomically(textFile, text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        SourceRef current = readRef(sourceKey);
+        if (current == null || !current.contentHash().equals(contentHash) || !Objects.equals(current.blobSha(), blobSha)) {
+            Properties properties = new Properties();
+            properties.setProperty("source", sourceKey);
+            properties.setProperty("content", contentHash);
+            if (blobSha != null) {
+                properties.setProperty("blob", blobSha);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            properties.store(out, null);
+            writeAtomically(refFile(sourceKey), out.toByteArray());
+        }
+    }
+
+    /**
+     * Removes the pointers of sources that no longer exist and the documents no pointer refers to.
+     */
+    void prune(Set<String> liveSourceKeys) throws IOException {
+        Set<String> liveHashes = new HashSet<>();
+        if (Files.isDirectory(refs)) {
+            try (Stream<Path> files = Files.list(refs)) {
+                for (Path refFile : (Iterable<Path>) files::iterator) {
+                    Properties properties = readProperties(refFile);
+                    if (properties == null || !liveSourceKeys.contains(properties.getProperty("source"))) {
+                        Files.deleteIfExists(refFile);
+                    } else {
+                        liveHashes.add(properties.getProperty("content"));
+                    }
+                }
+            }
+        }
+        if (!Files.isDirectory(objects)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - PRUNE_GRACE_PERIOD;
+        int removed = 0;
+        try (Stream<Path> files = Files.walk(objects, 2)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String name = file.getFileName().toString();
+                String contentHash = name.substring(0, Math.max(0, name.lastIndexOf('.')));
+                if (!liveHashes.contains(contentHash) && Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    Files.deleteIfExists(file);
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            LOGGER.fine(LOG_PREFIX + "Pruned " + removed + " unreferenced files");
+        }
+    }
+
+    private Path objectFile(String contentHash, String suffix) {
+        return objects.resolve(contentHash.substring(0, 2)).resolve(contentHash + suffix);
+    }
+
+    private Path refFile(String sourceKey) {
+        return refs.resolve(YAMLParseCache.contentHash(sourceKey) + REF_SUFFIX);
+    }
+
+    private static Properties readProperties(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        return properties;
+    }
+
+    static void writeAtomically(Path file, byte[] data) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, data);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static Set<String> liveSourceKeys() {
+        Set<String> keys = new HashSet<>();
+        for (Config config : GlobalYAMLPropertiesConfiguration.get().getConfigs()) {
+            if (config.getConfigSource() instanceof ConfigSourceGitDirectory directory) {
+                keys.addAll(directory.getStoredKeys());
+            } else if (config.getConfigSource() instanceof RemoteConfigSource source) {
+                keys.add(source.getSourceKey());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Loads the stored documents of all remote sources in the background and in parallel,
+     * a source used before its turn loads itself on first access.
+     */
+    @Initializer(after = InitMilestone.SYSTEM_CONFIG_ADAPTED)
+    public static void warmUp() {
+        for (Config config : GlobalYAMLPropertiesConfiguration.get().getConfigs()) {
+            if (config.getConfigSource() instanceof RemoteConfigSource source) {
+                Timer.get().submit(source::hydrate);
+            }
+        }
+    }
+
+    @Extension
+    public static class Pruner extends AsyncPeriodicWork {
+
+        public Pruner() {
+            super("GlobalYAMLPropertiesStorePruner");
+        }
+
+        @Override
+        protected void execute(TaskListener listener) throws IOException {
+            try {
+                ConfigContentStore.get().prune(liveSourceKeys());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        public long getRecurrencePeriod() {
+            return HOUR;
+        }
+    }
+}
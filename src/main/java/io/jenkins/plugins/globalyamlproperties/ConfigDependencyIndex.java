@@ -0,0 +1,150 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.listeners.ItemListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index from global configs to the jobs that read them and the paths they read, see {@link ConfigDiff} for
+ * the path format. Only jobs with a {@link GlobalYAMLConfigTrigger} are indexed, and every job keeps the paths
+ * read by its latest build only.
+ * <p>
+ * The index lives in memory, after a restart a job is indexed again by its next build.
+ */
+public final class ConfigDependencyIndex {
+
+    private static final ConfigDependencyIndex INSTANCE = new ConfigDependencyIndex();
+
+    // config name -> job full name -> paths read by the latest build
+    private final Map<String, Map<String, Dependency>> dependents = new ConcurrentHashMap<>();
+
+    ConfigDependencyIndex() {
+    }
+
+    public static ConfigDependencyIndex get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return a tracker recording the reads of the build into the index and, if enabled, into the key usage of
+     * {@link ConfigUsage}, or {@code null} if there is nothing to record
+     */
+    public Tracker track(Run<?, ?> run, String configName) {
+        if (configName == null) {
+            return null;
+        }
+        boolean indexed = run != null && GlobalYAMLConfigTrigger.of(run.getParent()) != null;
+        if (!indexed && !ConfigUsage.TRACK_KEYS) {
+            return null;
+        }
+        return new Tracker(this, indexed ? run.getParent().getFullName() : null, indexed ? run.getNumber() : 0, configName);
+    }
+
+    void record(String jobFullName, int buildNumber, String configName, String path) {
+        Map<String, Dependency> jobs = dependents.computeIfAbsent(configName, k -> new ConcurrentHashMap<>());
+        Dependency dependency = jobs.compute(jobFullName, (k, existing) ->
+                existing == null || existing.buildNumber < buildNumber ? new Dependency(buildNumber) : existing);
+        if (dependency.buildNumber == buildNumber) {
+            dependency.paths.add(path);
+        }
+    }
+
+    /**
+     * @return full names of the jobs whose latest build read a path touched by the diff
+     */
+    public Set<String> getAffectedJobs(String configName, ConfigDiff diff) {
+        Map<String, Dependency> jobs = dependents.get(configName);
+        if (jobs == null) {
+            return Collections.emptySet();
+        }
+        Set<String> affected = new TreeSet<>();
+        for (Map.Entry<String, Dependency> job : jobs.entrySet()) {
+            for (String path : job.getValue().paths) {
+                if (diff.affects(path)) {
+                    affected.add(job.getKey());
+                    break;
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * @return paths read by the latest build of the job, empty if it is not indexed for the config
+     */
+    public Set<String> getPaths(String configName, String jobFullName) {
+        Map<String, Dependency> jobs = dependents.get(configName);
+        Dependency dependency = jobs == null ? null : jobs.get(jobFullName);
+        return dependency == null ? Collections.emptySet() : Collections.unmodifiableSet(dependency.paths);
+    }
+
+    void remove(String jobFullName) {
+        for (Map<String, Dependency> jobs : dependents.values()) {
+            jobs.remove(jobFullName);
+        }
+    }
+
+    private static final class Dependency {
+        private final int buildNumber;
+        private final Set<String> paths = ConcurrentHashMap.newKeySet();
+
+        private Dependency(int buildNumber) {
+            this.buildNumber = buildNumber;
+        }
+    }
+
+    /**
+     * Records the reads of one step call. Every path is passed on to the index once, every top-level key counts one read.
+     */
+    public static final class Tracker {
+        private final ConfigDependencyIndex index;
+        private final String jobFullName;
+        private final int buildNumber;
+        private final String configName;
+        private final Set<String> recorded = ConcurrentHashMap.newKeySet();
+        private final Set<String> keys = ConcurrentHashMap.newKeySet();
+
+        private Tracker(ConfigDependencyIndex index, String jobFullName, int buildNumber, String configName) {
+            this.index = index;
+            this.jobFullName = jobFullName;
+            this.buildNumber = buildNumber;
+            this.configName = configName;
+        }
+
+        public void record(String path) {
+            if (!recorded.add(path)) {
+                return;
+            }
+            if (jobFullName != null) {
+                index.record(jobFullName, buildNumber, configName, path);
+            }
+            String key = ConfigDiff.topLevelKey(path);
+            if (ConfigUsage.TRACK_KEYS && !key.isEmpty() && keys.add(key)) {
+                ConfigUsage.get().recordKeyRead(configName, key);
+            }
+        }
+    }
+
+    @Extension
+    public static class CleanupListener extends ItemListener {
+
+        @Override
+        public void onDeleted(Item item) {
+            if (item instanceof Job<?, ?>) {
+                INSTANCE.remove(item.getFullName());
+            }
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            if (item instanceof Job<?, ?>) {
+                INSTANCE.remove(oldFullName);
+            }
+        }
+    }
+}
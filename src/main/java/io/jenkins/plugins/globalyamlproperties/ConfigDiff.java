@@ -0,0 +1,137 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import java.util.*;
+
+/**
+ * Structural difference between two parsed trees of a config. Maps and lists are compared element by element,
+ * every other value as a whole. Paths join map keys with {@code .} and list indices as {@code [i]},
+ * e.g. {@code servers[2].host}.
+ */
+public final class ConfigDiff {
+
+    public enum Kind { ADDED, REMOVED, MODIFIED }
+
+    /**
+     * One changed value, {@code oldValue} is {@code null} for {@link Kind#ADDED} and {@code newValue} for {@link Kind#REMOVED}.
+     */
+    public record Change(String path, Kind kind, Object oldValue, Object newValue) {
+    }
+
+    private final String previousHash;
+    private final String currentHash;
+    private final List<Change> changes;
+
+    ConfigDiff(String previousHash, String currentHash, List<Change> changes) {
+        this.previousHash = previousHash;
+        this.currentHash = currentHash;
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    public static ConfigDiff compute(String previousHash, Map<String, Object> previous,
+                                     String currentHash, Map<String, Object> current) {
+        List<Change> changes = new ArrayList<>();
+        diff("", previous == null ? Collections.emptyMap() : previous, current == null ? Collections.emptyMap() : current, changes);
+        return new ConfigDiff(previousHash, currentHash, changes);
+    }
+
+    private static void diff(String path, Object before, Object after, List<Change> changes) {
+        // Trees from the parse cache share unchanged documents, identical references need no walk
+        if (before == after) {
+            return;
+        }
+        if (before instanceof Map<?, ?> beforeMap && after instanceof Map<?, ?> afterMap) {
+            for (Map.Entry<?, ?> entry : beforeMap.entrySet()) {
+                String child = child(path, entry.getKey());
+                if (afterMap.containsKey(entry.getKey())) {
+                    diff(child, entry.getValue(), afterMap.get(entry.getKey()), changes);
+                } else {
+                    changes.add(new Change(child, Kind.REMOVED, entry.getValue(), null));
+                }
+            }
+            for (Map.Entry<?, ?> entry : afterMap.entrySet()) {
+                if (!beforeMap.containsKey(entry.getKey())) {
+                    changes.add(new Change(child(path, entry.getKey()), Kind.ADDED, null, entry.getValue()));
+                }
+            }
+        } else if (before instanceof List<?> beforeList && after instanceof List<?> afterList) {
+            int common = Math.min(beforeList.size(), afterList.size());
+            for (int i = 0; i < common; i++) {
+                diff(index(path, i), beforeList.get(i), afterList.get(i), changes);
+            }
+            for (int i = common; i < beforeList.size(); i++) {
+                changes.add(new Change(index(path, i), Kind.REMOVED, beforeList.get(i), null));
+            }
+            for (int i = common; i < afterList.size(); i++) {
+                changes.add(new Change(index(path, i), Kind.ADDED, null, afterList.get(i)));
+            }
+        } else if (!Objects.equals(before, after)) {
+            changes.add(new Change(path, Kind.MODIFIED, before, after));
+        }
+    }
+
+    static String child(String path, Object key) {
+        return path.isEmpty() ? String.valueOf(key) : path + "." + key;
+    }
+
+    static String index(String path, int index) {
+        return path + "[" + index + "]";
+    }
+
+    /**
+     * @return the top-level key a path starts with, empty for the root
+     */
+    static String topLevelKey(String path) {
+        int end = path.length();
+        int dot = path.indexOf('.');
+        int bracket = path.indexOf('[');
+        if (dot >= 0) {
+            end = dot;
+        }
+        if (bracket >= 0 && bracket < end) {
+            end = bracket;
+        }
+        return path.substring(0, end);
+    }
+
+    public String getPreviousHash() {
+        return previousHash;
+    }
+
+    public String getCurrentHash() {
+        return currentHash;
+    }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * @return {@code true} if the value at {@code path}, anything below it or anything containing it changed
+     */
+    public boolean affects(String path) {
+        for (Change change : changes) {
+            if (isWithin(change.path(), path) || isWithin(path, change.path())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWithin(String path, String ancestor) {
+        return path.equals(ancestor) || ancestor.isEmpty()
+                || path.startsWith(ancestor) && (path.charAt(ancestor.length()) == '.' || path.charAt(ancestor.length()) == '[');
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Change change : changes) {
+            text.append(change.kind()).append(' ').append(change.path()).append('\n');
+        }
+        return text.toString();
+    }
+}
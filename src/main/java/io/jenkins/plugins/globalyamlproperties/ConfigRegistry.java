@@ -0,0 +1,101 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import java.util.*;
+
+/**
+ * Immutable lookup snapshot of the configured {@link Config} list, each config followed by the configs it generates.
+ * A new registry is built whenever the config list changes and is published as a whole,
+ * so readers never observe a half-updated index.
+ */
+public final class ConfigRegistry {
+
+    static final ConfigRegistry EMPTY = new ConfigRegistry(Collections.emptyList());
+
+    private final List<Config> configs;
+    private final Map<String, Config> byName;
+    private final Map<String, List<Config>> byCategory;
+    private final Map<String, List<String>> namesByCategory;
+    private final List<String> names;
+    private final List<String> categories;
+
+    ConfigRegistry(List<Config> source) {
+        List<Config> configList = new ArrayList<>(source.size());
+        Map<String, Config> nameIndex = new HashMap<>();
+        Map<String, List<Config>> categoryIndex = new LinkedHashMap<>();
+        List<String> nameList = new ArrayList<>(source.size());
+
+        List<Config> expanded = new ArrayList<>(source.size());
+        for (Config config : source) {
+            if (config != null) {
+                expanded.add(config);
+                expanded.addAll(config.getGeneratedConfigs());
+            }
+        }
+
+        for (Config config : expanded) {
+            configList.add(config);
+            nameList.add(config.getName());
+            if (config.getName() != null) {
+                // First definition wins, same as the former linear scan
+                nameIndex.putIfAbsent(config.getName(), config);
+            }
+            if (config.getCategory() != null) {
+                categoryIndex.computeIfAbsent(config.getCategory(), k -> new ArrayList<>()).add(config);
+            }
+        }
+
+        Map<String, List<Config>> frozenCategoryIndex = new HashMap<>();
+        Map<String, List<String>> frozenNamesIndex = new HashMap<>();
+        List<String> categoryList = new ArrayList<>();
+        for (Map.Entry<String, List<Config>> entry : categoryIndex.entrySet()) {
+            List<String> categoryNames = new ArrayList<>(entry.getValue().size());
+            for (Config config : entry.getValue()) {
+                categoryNames.add(config.getName());
+            }
+            frozenCategoryIndex.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+            frozenNamesIndex.put(entry.getKey(), Collections.unmodifiableList(categoryNames));
+            if (!entry.getKey().isEmpty()) {
+                categoryList.add(entry.getKey());
+            }
+        }
+
+        this.configs = Collections.unmodifiableList(configList);
+        this.byName = nameIndex;
+        this.byCategory = frozenCategoryIndex;
+        this.namesByCategory = frozenNamesIndex;
+        this.names = Collections.unmodifiableList(nameList);
+        this.categories = Collections.unmodifiableList(categoryList);
+    }
+
+    public List<Config> getConfigs() {
+        return configs;
+    }
+
+    public Config getConfigByName(String name) {
+        return name == null ? null : byName.get(name);
+    }
+
+    public Config getDefaultConfig() {
+        return configs.isEmpty() ? null : configs.get(0);
+    }
+
+    public List<String> getConfigNames() {
+        return names;
+    }
+
+    public List<Config> getConfigsByCategory(String category) {
+        return category == null ? Collections.emptyList() : byCategory.getOrDefault(category, Collections.emptyList());
+    }
+
+    public List<String> getConfigNamesByCategory(String category) {
+        return category == null ? Collections.emptyList() : namesByCategory.getOrDefault(category, Collections.emptyList());
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public int size() {
+        return configs.size();
+    }
+}
@@ -0,0 +1,213 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import jenkins.util.SystemProperties;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+import net.sf.json.util.JSONUtils;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized responses of the read API of {@link ConfigurationManagementLink}, keyed by what was requested and
+ * the content hashes it was built from. A config is serialized, and compressed, once per version no matter how many
+ * clients poll it; the total size of cached responses is bounded by {@code maxCachedBytes}.
+ */
+public final class ConfigResponseCache {
+
+    static final long MAX_CACHED_BYTES = SystemProperties.getLong(ConfigResponseCache.class.getName() + ".maxCachedBytes", 32L * 1024 * 1024);
+
+    public enum Format {
+        JSON("application/json;charset=UTF-8"),
+        YAML("application/yaml;charset=UTF-8");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    private static final ConfigResponseCache INSTANCE = new ConfigResponseCache();
+
+    private final LinkedHashMap<String, Response> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    ConfigResponseCache() {
+    }
+
+    public static ConfigResponseCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param configs  the requested configs, a single config is served as its own tree, several as a map by name
+     * @param single   {@code true} if a single config was requested by name
+     * @return strong entity tag of the response, computable without serializing anything
+     */
+    public static String etag(List<Config> configs, boolean single, Format format) {
+        return "\"" + YAMLParseCache.contentHash(version(configs, single)) + "-" + format.name().toLowerCase(Locale.ENGLISH) + "\"";
+    }
+
+    private static String version(List<Config> configs, boolean single) {
+        StringBuilder version = new StringBuilder(single ? "config" : "category");
+        for (Config config : configs) {
+            version.append('\n').append(config.getName()).append('\n').append(config.getContentHash());
+        }
+        return version.toString();
+    }
+
+    public Response get(List<Config> configs, boolean single, Format format) {
+        String etag = etag(configs, single, format);
+        synchronized (this) {
+            Response cached = entries.get(etag);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Response response = new Response(etag, format, serialize(configs, single, format));
+        store(response);
+        return response;
+    }
+
+    private synchronized void store(Response response) {
+        long size = response.size();
+        if (size > MAX_CACHED_BYTES) {
+            return;
+        }
+        Response previous = entries.put(response.etag, response);
+        if (previous != null) {
+            cachedBytes -= previous.size();
+        }
+        cachedBytes += size;
+        Iterator<Response> eldest = entries.values().iterator();
+        while (cachedBytes > MAX_CACHED_BYTES && eldest.hasNext()) {
+            cachedBytes -= eldest.next().size();
+            eldest.remove();
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        cachedBytes = 0;
+    }
+
+    private static byte[] serialize(List<Config> configs, boolean single, Format format) {
+        if (single && format == Format.YAML) {
+            // The source text, comments and formatting included
+            String yaml = configs.get(0).getYamlConfig();
+            return (yaml == null ? "" : yaml).getBytes(StandardCharsets.UTF_8);
+        }
+        Map<String, Object> tree;
+        if (single) {
+            tree = configs.get(0).getConfigMap();
+        } else {
+            tree = new LinkedHashMap<>();
+            for (Config config : configs) {
+                tree.put(config.getName(), config.getConfigMap());
+            }
+        }
+        return serialize(tree, format).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return a parsed tree, or any value within it, as JSON or as a block style YAML document
+     */
+    public static String serialize(Object tree, Format format) {
+        if (format == Format.JSON) {
+            return JSONUtils.valueToString(toJSON(tree));
+        }
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        return new Yaml(options).dump(tree);
+    }
+
+    // YAML allows non-string keys, timestamps and binary values that JSON has no notion of
+    private static Object toJSON(Object node) {
+        if (node instanceof Map<?, ?> map) {
+            JSONObject json = new JSONObject();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                json.put(String.valueOf(entry.getKey()), toJSON(entry.getValue()));
+            }
+            return json;
+        }
+        if (node instanceof Collection<?> collection) {
+            JSONArray json = new JSONArray();
+            for (Object item : collection) {
+                json.add(toJSON(item));
+            }
+            return json;
+        }
+        if (node instanceof Date date) {
+            return date.toInstant().toString();
+        }
+        if (node instanceof byte[] bytes) {
+            return Base64.getEncoder().encodeToString(bytes);
+        }
+        if (node instanceof BigInteger || node instanceof BigDecimal) {
+            return node.toString();
+        }
+        return node == null ? JSONNull.getInstance() : node;
+    }
+
+    /**
+     * One serialized response; the compressed form is built on first request.
+     */
+    public static final class Response {
+        private final String etag;
+        private final Format format;
+        private final byte[] body;
+        private volatile byte[] gzipped;
+
+        Response(String etag, Format format, byte[] body) {
+            this.etag = etag;
+            this.format = format;
+            this.body = body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public Format getFormat() {
+            return format;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public byte[] getGzipped() {
+            byte[] compressed = gzipped;
+            if (compressed == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(body);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                compressed = out.toByteArray();
+                gzipped = compressed;
+            }
+            return compressed;
+        }
+
+        // Leaves room for the gzipped form, which is built for most responses and rarely half the body
+        private long size() {
+            return body.length + (long) body.length / 2;
+        }
+    }
+}
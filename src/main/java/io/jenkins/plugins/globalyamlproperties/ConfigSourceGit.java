@@ -0,0 +1,227 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Descriptor;
+import hudson.security.ACL;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.verb.POST;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Reads a config file from any Git repository through a local {@link GitMirror}. Configs reading files of the same
+ * repository and ref share one incremental fetch per refresh, and a file is only read and parsed again when its
+ * blob id changed.
+ */
+public class ConfigSourceGit implements RemoteConfigSource, Serializable {
+
+    private static final Pattern COMMIT_SHA = Pattern.compile("[0-9a-fA-F]{40}");
+
+    private static final Logger LOGGER = Logger.getLogger(ConfigSourceGit.class.getName());
+
+    private transient volatile String yamlConfig;
+    private transient volatile boolean hydrated;
+
+    private final String url;
+    private final String ref;
+    private final String path;
+    private String credentialsId;
+
+    // Minutes between polls of this source, 0 falls back to the global refresh interval
+    private int refreshInterval;
+
+    // Git blob id of the last read content
+    private transient volatile String blobSha;
+
+    @DataBoundConstructor
+    public ConfigSourceGit(String url, String ref, String path) {
+        this.url = Util.fixEmptyAndTrim(url);
+        this.ref = Util.fixEmptyAndTrim(ref) == null ? "main" : ref.trim();
+        this.path = path;
+    }
+
+    @Override
+    public String getYamlConfig() {
+        hydrate();
+        return yamlConfig;
+    }
+
+    @Override
+    public void hydrate() {
+        if (hydrated) {
+            return;
+        }
+        synchronized (this) {
+            if (hydrated || Jenkins.getInstanceOrNull() == null) {
+                return;
+            }
+            try {
+                ConfigContentStore.SourceRef sourceRef = ConfigContentStore.get().readRef(getSourceKey());
+                if (sourceRef != null && yamlConfig == null) {
+                    String text = ConfigContentStore.get().readDocument(sourceRef.contentHash());
+                    if (text != null) {
+                        this.blobSha = sourceRef.blobSha();
+                        this.yamlConfig = text;
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to load stored content of " + getSourceKey(), e);
+            }
+            hydrated = true;
+        }
+    }
+
+    @DataBoundSetter
+    public void setCredentialsId(String credentialsId) {
+        this.credentialsId = Util.fixEmpty(credentialsId);
+    }
+
+    @DataBoundSetter
+    public void setRefreshInterval(int refreshInterval) {
+        this.refreshInterval = Math.max(0, refreshInterval);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getRef() {
+        return ref;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public String getCredentialsId() {
+        return credentialsId;
+    }
+
+    @Override
+    public int getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    @Override
+    public String getSourceKey() {
+        return "git:" + url + "@" + ref + ":" + path + "#" + credentialsId;
+    }
+
+    public String getBlobSha() {
+        hydrate();
+        return blobSha;
+    }
+
+    @Override
+    public boolean fetchConfiguration(GitHubSession session) throws IOException {
+        hydrate();
+        if (yamlConfig != null && blobSha != null && COMMIT_SHA.matcher(ref).matches()) {
+            return false;
+        }
+        if (url == null) {
+            throw new IOException("No repository URL configured");
+        }
+        long fetchStarted = System.nanoTime();
+        GitMirror mirror = GitMirror.of(url);
+        StandardUsernamePasswordCredentials credentials = credentials(credentialsId);
+        String commit = session.fetchOnce(url + "@" + ref + "#" + credentialsId, () -> mirror.fetch(ref, credentials));
+        String blob = mirror.blobId(commit, path);
+        if (blob == null) {
+            throw new FileNotFoundException(path + " not found in " + url + " at " + ref);
+        }
+        if (yamlConfig != null && blob.equals(blobSha)) {
+            GlobalYAMLMetrics.get().recordSince(GlobalYAMLMetrics.FETCH_LATENCY, fetchStarted);
+            return false;
+        }
+        byte[] content = mirror.read(blob);
+        String text = new String(content, StandardCharsets.UTF_8);
+        GlobalYAMLMetrics.get().recordSince(GlobalYAMLMetrics.FETCH_LATENCY, fetchStarted);
+        GlobalYAMLMetrics.get().size(GlobalYAMLMetrics.FETCH_PAYLOAD).record(content.length);
+        ConfigContentStore.get().write(getSourceKey(), text, blob);
+        this.blobSha = blob;
+        this.yamlConfig = text;
+        return true;
+    }
+
+    static StandardUsernamePasswordCredentials credentials(String credentialsId) throws IOException {
+        if (credentialsId == null) {
+            return null;
+        }
+        if (Utils.getCredentialsById(credentialsId) instanceof StandardUsernamePasswordCredentials credentials) {
+            return credentials;
+        }
+        throw new IOException("Credentials " + credentialsId + " are not username/password credentials");
+    }
+
+    @Override
+    public ConfigSourceGit.DescriptorImpl getDescriptor() {
+        return Jenkins.get().getDescriptorByType(ConfigSourceGit.DescriptorImpl.class);
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<ConfigSource> {
+
+        @POST
+        @SuppressWarnings("unused")
+        public FormValidation doValidate(
+                @QueryParameter("url") String url,
+                @QueryParameter("ref") String ref,
+                @QueryParameter("path") String path,
+                @QueryParameter("credentialsId") String credentialsId
+        ) {
+            if (!Jenkins.get().hasPermission(Jenkins.ADMINISTER)) {
+                return FormValidation.error("Only administrators can fetch configuration");
+            }
+            ConfigSourceGit source = new ConfigSourceGit(url, ref, path);
+            try {
+                GitMirror mirror = GitMirror.of(source.url);
+                String commit = mirror.fetch(source.ref, credentials(Util.fixEmpty(credentialsId)));
+                String blob = mirror.blobId(commit, source.path);
+                if (blob == null) {
+                    return FormValidation.error(source.path + " not found at " + commit);
+                }
+                return FormValidation.ok("Success, commit " + commit + "\n" + new String(mirror.read(blob), StandardCharsets.UTF_8));
+            } catch (Exception e) {
+                return FormValidation.error(e.toString());
+            }
+        }
+
+        @SuppressWarnings("unused")
+        @POST
+        public ListBoxModel doFillCredentialsIdItems() {
+            ListBoxModel items = new ListBoxModel();
+            items.add("- none -", "");
+            if (!Jenkins.get().hasPermission(Jenkins.ADMINISTER)) {
+                return items;
+            }
+            for (StandardUsernamePasswordCredentials c : CredentialsProvider.lookupCredentialsInItem(
+                    StandardUsernamePasswordCredentials.class, null, ACL.SYSTEM2, Collections.emptyList())) {
+                items.add(c.getId());
+            }
+            return items;
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Config from Git repository";
+        }
+    }
+}
@@ -0,0 +1,494 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Descriptor;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.verb.POST;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fans the YAML files of a Git repository directory out into one generated {@link Config} per file.
+ * A file {@code <directory>/team/app.yaml} of the config {@code services} becomes the config {@code services/team/app},
+ * in the same category. Every refresh lists the matching files in one walk of the fetched commit's tree
+ * (see {@link GitMirror}) and only reads and parses files whose blob id changed.
+ * <p>
+ * The config itself holds an index of the generated files and their blob ids. A file that is not a valid YAML map
+ * is listed in the index with its error and left out of the generated configs, the others are not affected.
+ * Generated configs read and parse their file on first use.
+ */
+public class ConfigSourceGitDirectory implements RemoteConfigSource, Serializable {
+
+    private static final Logger LOGGER = Logger.getLogger(ConfigSourceGitDirectory.class.getName());
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+    private static final String DEFAULT_FILES = "*.{yaml,yml}";
+
+    private final String url;
+    private final String ref;
+    private final String pattern;
+    private String credentialsId;
+
+    // Minutes between polls of this source, 0 falls back to the global refresh interval
+    private int refreshInterval;
+
+    private transient volatile boolean hydrated;
+    private transient volatile String yamlConfig;
+    // Commit the files were last listed from
+    private transient volatile String commit;
+    // Path -> file, replaced as a whole by every fetch that changes anything
+    private transient volatile Map<String, GeneratedFile> files = Collections.emptyMap();
+    // Path -> generated config, created on first lookup for the owning config's name and category
+    private transient Map<String, Config> configs;
+    // Paths whose generated config still holds the tree of an older blob
+    private transient Set<String> pendingReparse = new HashSet<>();
+    private transient String ownerName;
+    private transient String ownerCategory;
+
+    /**
+     * @param pattern a directory, all YAML files directly in it are used, or a glob such as {@code configs/**.yaml}
+     */
+    @DataBoundConstructor
+    public ConfigSourceGitDirectory(String url, String ref, String pattern) {
+        this.url = Util.fixEmptyAndTrim(url);
+        this.ref = Util.fixEmptyAndTrim(ref) == null ? "main" : ref.trim();
+        this.pattern = pattern == null ? "" : GitMirror.normalize(pattern.trim());
+    }
+
+    protected Object readResolve() {
+        // Field initializers do not run for instances loaded from disk
+        files = Collections.emptyMap();
+        pendingReparse = new HashSet<>();
+        return this;
+    }
+
+    @DataBoundSetter
+    public void setCredentialsId(String credentialsId) {
+        this.credentialsId = Util.fixEmpty(credentialsId);
+    }
+
+    @DataBoundSetter
+    public void setRefreshInterval(int refreshInterval) {
+        this.refreshInterval = Math.max(0, refreshInterval);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getRef() {
+        return ref;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public String getCredentialsId() {
+        return credentialsId;
+    }
+
+    @Override
+    public int getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    @Override
+    public String getSourceKey() {
+        return "git-directory:" + url + "@" + ref + ":" + pattern + "#" + credentialsId;
+    }
+
+    private String fileKey(String path) {
+        return getSourceKey() + "/" + path;
+    }
+
+    /**
+     * @return content store keys of the index and of every generated file
+     */
+    Set<String> getStoredKeys() {
+        hydrate();
+        Set<String> keys = new HashSet<>();
+        keys.add(getSourceKey());
+        for (String path : files.keySet()) {
+            keys.add(fileKey(path));
+        }
+        return keys;
+    }
+
+    @Override
+    public String getYamlConfig() {
+        hydrate();
+        return yamlConfig;
+    }
+
+    @Override
+    public void hydrate() {
+        if (hydrated) {
+            return;
+        }
+        synchronized (this) {
+            if (hydrated || Jenkins.getInstanceOrNull() == null) {
+                return;
+            }
+            try {
+                // Only the index, the files themselves are read when their config is first used
+                ConfigContentStore store = ConfigContentStore.get();
+                ConfigContentStore.SourceRef indexRef = store.readRef(getSourceKey());
+                String index = indexRef == null ? null : store.readDocument(indexRef.contentHash());
+                if (index != null) {
+                    Map<String, Object> tree = YAMLParseCache.parseMap(index);
+                    Map<?, ?> errors = tree.get("errors") instanceof Map<?, ?> map ? map : Collections.emptyMap();
+                    Map<String, GeneratedFile> loaded = new TreeMap<>();
+                    if (tree.get("files") instanceof Map<?, ?> blobs) {
+                        for (Map.Entry<?, ?> blob : blobs.entrySet()) {
+                            String path = String.valueOf(blob.getKey());
+                            Object error = errors.get(path);
+                            loaded.put(path, new GeneratedFile(path, fileKey(path), String.valueOf(blob.getValue()), null,
+                                    error == null ? null : String.valueOf(error)));
+                        }
+                    }
+                    this.files = loaded;
+                    this.commit = indexRef.blobSha();
+                    this.yamlConfig = index;
+                }
+            } catch (IOException | YAMLException e) {
+                LOGGER.log(Level.WARNING, "Failed to load stored content of " + getSourceKey(), e);
+            }
+            hydrated = true;
+        }
+    }
+
+    @Override
+    public boolean fetchConfiguration(GitHubSession session) throws IOException {
+        hydrate();
+        if (url == null) {
+            throw new IOException("No repository URL configured");
+        }
+        // Fetching and reading happen without holding the monitor, getConfigs must not wait for the network
+        long fetchStarted = System.nanoTime();
+        GitMirror mirror = GitMirror.of(url);
+        String credentials = credentialsId;
+        String head = session.fetchOnce(url + "@" + ref + "#" + credentials,
+                () -> mirror.fetch(ref, ConfigSourceGit.credentials(credentials)));
+        boolean listed = yamlConfig != null && head.equals(commit);
+        if (listed && pendingReparse().isEmpty()) {
+            GlobalYAMLMetrics.get().recordSince(GlobalYAMLMetrics.FETCH_LATENCY, fetchStarted);
+            return false;
+        }
+
+        boolean changed = false;
+        if (!listed) {
+            Map<String, GeneratedFile> previous = files;
+            Map<String, GeneratedFile> current = new TreeMap<>();
+            List<Update> updates = new ArrayList<>();
+            long downloaded = 0;
+            for (Map.Entry<String, String> blob : mirror.listBlobs(head, baseDirectory(pattern), matcher(pattern)).entrySet()) {
+                GeneratedFile file = previous.get(blob.getKey());
+                if (file != null && blob.getValue().equals(file.blobId)) {
+                    current.put(blob.getKey(), file);
+                    continue;
+                }
+                byte[] content = mirror.read(blob.getValue());
+                downloaded += content.length;
+                String text = new String(content, StandardCharsets.UTF_8);
+                ConfigContentStore.get().write(fileKey(blob.getKey()), text, blob.getValue());
+                String error = parseError(text);
+                if (error != null) {
+                    LOGGER.warning("Leaving out " + blob.getKey() + " of " + getSourceKey() + ": " + error);
+                }
+                if (file == null) {
+                    file = new GeneratedFile(blob.getKey(), fileKey(blob.getKey()), blob.getValue(), text, error);
+                } else {
+                    updates.add(new Update(file, blob.getValue(), text, error));
+                }
+                current.put(blob.getKey(), file);
+            }
+            GlobalYAMLMetrics.get().recordSince(GlobalYAMLMetrics.FETCH_LATENCY, fetchStarted);
+            GlobalYAMLMetrics.get().size(GlobalYAMLMetrics.FETCH_PAYLOAD).record(downloaded);
+
+            String index = index(current, updates);
+            ConfigContentStore.get().write(getSourceKey(), index, head);
+            Set<String> previouslyValid = validPaths(previous);
+            synchronized (this) {
+                for (Update update : updates) {
+                    update.file.update(update.blobId, update.text, update.error);
+                    pendingReparse.add(update.file.path);
+                }
+                this.files = Collections.unmodifiableMap(current);
+                this.yamlConfig = index;
+            }
+            LOGGER.fine("Listed " + current.size() + " files of " + getSourceKey() + " at " + head + ", "
+                    + updates.size() + " changed");
+            if (!previouslyValid.equals(validPaths(current)) && Jenkins.getInstanceOrNull() != null) {
+                GlobalYAMLPropertiesConfiguration.get().rebuildRegistry();
+            }
+            changed = !previous.keySet().equals(current.keySet()) || !updates.isEmpty();
+        }
+
+        reparse(session);
+        // Only now, a failed reparse is retried by the next refresh even if the commit stays the same
+        this.commit = head;
+        return changed;
+    }
+
+    private synchronized Set<String> pendingReparse() {
+        return new HashSet<>(pendingReparse);
+    }
+
+    // Generated configs already handed out hold the old tree until they are parsed again
+    private void reparse(GitHubSession session) throws IOException {
+        Map<String, Config> stale = new TreeMap<>();
+        synchronized (this) {
+            Iterator<String> paths = pendingReparse.iterator();
+            while (paths.hasNext()) {
+                String path = paths.next();
+                GeneratedFile file = files.get(path);
+                Config config = configs == null ? null : configs.get(path);
+                // Unparsed configs read the new text on first use
+                if (file != null && config != null && config.getConfigSource() == file && config.isParsed() && file.error == null) {
+                    stale.put(path, config);
+                } else {
+                    paths.remove();
+                }
+            }
+        }
+        for (Map.Entry<String, Config> config : stale.entrySet()) {
+            config.getValue().refreshConfiguration(session);
+            synchronized (this) {
+                pendingReparse.remove(config.getKey());
+            }
+        }
+    }
+
+    private record Update(GeneratedFile file, String blobId, String text, String error) {
+    }
+
+    /**
+     * @return one config per file, named {@code <ownerName>/<path below the directory without extension>}
+     */
+    synchronized List<Config> getConfigs(String ownerName, String ownerCategory) {
+        hydrate();
+        if (configs == null || !Objects.equals(ownerName, this.ownerName) || !Objects.equals(ownerCategory, this.ownerCategory)) {
+            configs = new HashMap<>();
+            this.ownerName = ownerName;
+            this.ownerCategory = ownerCategory;
+        }
+        Map<String, GeneratedFile> current = files;
+        configs.keySet().retainAll(validPaths(current));
+        List<Config> generated = new ArrayList<>(current.size());
+        for (GeneratedFile file : current.values()) {
+            if (file.error != null) {
+                continue;
+            }
+            Config config = configs.get(file.path);
+            if (config == null || config.getConfigSource() != file) {
+                config = Config.lazy(ownerName + "/" + configName(pattern, file.path), ownerCategory, file);
+                configs.put(file.path, config);
+            }
+            generated.add(config);
+        }
+        return generated;
+    }
+
+    static String baseDirectory(String pattern) {
+        String[] segments = pattern.split("/");
+        StringBuilder base = new StringBuilder();
+        for (String segment : segments) {
+            if (segment.isEmpty() || segment.chars().anyMatch(c -> GLOB_CHARACTERS.indexOf(c) >= 0)) {
+                break;
+            }
+            base.append(base.length() == 0 ? "" : "/").append(segment);
+        }
+        return hasGlob(pattern) ? base.toString() : pattern;
+    }
+
+    static Predicate<String> matcher(String pattern) {
+        String glob = hasGlob(pattern) ? pattern : (pattern.isEmpty() ? "" : pattern + "/") + DEFAULT_FILES;
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        return path -> matcher.matches(Paths.get(path));
+    }
+
+    static String configName(String pattern, String path) {
+        String base = baseDirectory(pattern);
+        String relative = base.isEmpty() ? path : path.substring(base.length() + 1);
+        int extension = relative.lastIndexOf('.');
+        return extension > relative.lastIndexOf('/') + 1 ? relative.substring(0, extension) : relative;
+    }
+
+    private static boolean hasGlob(String pattern) {
+        return pattern.chars().anyMatch(c -> GLOB_CHARACTERS.indexOf(c) >= 0);
+    }
+
+    // Leaves out the commit, so commits touching other files do not change the index
+    private static String index(Map<String, GeneratedFile> files, List<Update> updates) {
+        Map<String, Update> staged = new HashMap<>();
+        for (Update update : updates) {
+            staged.put(update.file.path, update);
+        }
+        Map<String, Object> blobs = new LinkedHashMap<>();
+        Map<String, Object> errors = new LinkedHashMap<>();
+        files.forEach((path, file) -> {
+            Update update = staged.get(path);
+            blobs.put(path, update != null ? update.blobId : file.blobId);
+            String error = update != null ? update.error : file.error;
+            if (error != null) {
+                errors.put(path, error);
+            }
+        });
+        Map<String, Object> index = new LinkedHashMap<>();
+        index.put("files", blobs);
+        if (!errors.isEmpty()) {
+            index.put("errors", errors);
+        }
+        return ConfigResponseCache.serialize(index, ConfigResponseCache.Format.YAML);
+    }
+
+    private static Set<String> validPaths(Map<String, GeneratedFile> files) {
+        Set<String> paths = new HashSet<>();
+        files.forEach((path, file) -> {
+            if (file.error == null) {
+                paths.add(path);
+            }
+        });
+        return paths;
+    }
+
+    /**
+     * @return why the text cannot be used as a config, {@code null} if it can
+     */
+    static String parseError(String text) {
+        try {
+            YAMLParseCache.parseMap(text);
+            return null;
+        } catch (YAMLException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Override
+    public ConfigSourceGitDirectory.DescriptorImpl getDescriptor() {
+        return Jenkins.get().getDescriptorByType(ConfigSourceGitDirectory.DescriptorImpl.class);
+    }
+
+    /**
+     * Source of one generated config, updated in place when a fetch finds a new blob for its path.
+     * A file restored after a restart reads its text from the {@link ConfigContentStore} on first use.
+     */
+    static final class GeneratedFile implements ConfigSource, Serializable {
+        private final String path;
+        private final String storeKey;
+        private volatile String blobId;
+        private volatile String text;
+        private volatile String error;
+
+        GeneratedFile(String path, String storeKey, String blobId, String text, String error) {
+            this.path = path;
+            this.storeKey = storeKey;
+            this.blobId = blobId;
+            this.text = text;
+            this.error = error;
+        }
+
+        private synchronized void update(String blobId, String text, String error) {
+            this.blobId = blobId;
+            this.text = text;
+            this.error = error;
+        }
+
+        private synchronized String load() {
+            if (text == null && Jenkins.getInstanceOrNull() != null) {
+                try {
+                    ConfigContentStore.SourceRef sourceRef = ConfigContentStore.get().readRef(storeKey);
+                    if (sourceRef != null && Objects.equals(sourceRef.blobSha(), blobId)) {
+                        text = ConfigContentStore.get().readDocument(sourceRef.contentHash());
+                    }
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Failed to load stored content of " + storeKey, e);
+                }
+            }
+            return text;
+        }
+
+        /**
+         * @return why the file is left out of the generated configs, {@code null} if it is not
+         */
+        public String getError() {
+            return error;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getBlobSha() {
+            return blobId;
+        }
+
+        @Override
+        public String getYamlConfig() {
+            String current = text;
+            return current != null ? current : load();
+        }
+
+        @Override
+        public Descriptor<ConfigSource> getDescriptor() {
+            return Jenkins.get().getDescriptorByType(ConfigSourceGitDirectory.DescriptorImpl.class);
+        }
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<ConfigSource> {
+
+        @POST
+        @SuppressWarnings("unused")
+        public FormValidation doValidate(
+                @QueryParameter("url") String url,
+                @QueryParameter("ref") String ref,
+                @QueryParameter("pattern") String pattern,
+                @QueryParameter("credentialsId") String credentialsId
+        ) {
+            if (!Jenkins.get().hasPermission(Jenkins.ADMINISTER)) {
+                return FormValidation.error("Only administrators can fetch configuration");
+            }
+            ConfigSourceGitDirectory source = new ConfigSourceGitDirectory(url, ref, pattern);
+            try {
+                GitMirror mirror = GitMirror.of(source.url);
+                String head = mirror.fetch(source.ref, ConfigSourceGit.credentials(Util.fixEmpty(credentialsId)));
+                Set<String> paths = mirror.listBlobs(head, baseDirectory(source.pattern), matcher(source.pattern)).keySet();
+                return FormValidation.ok("Success, " + paths.size() + " files at commit " + head + "\n" + String.join("\n", paths));
+            } catch (Exception e) {
+                return FormValidation.error(e.toString());
+            }
+        }
+
+        @SuppressWarnings("unused")
+        @POST
+        public ListBoxModel doFillCredentialsIdItems() {
+            return Jenkins.get().getDescriptorByType(ConfigSourceGit.DescriptorImpl.class).doFillCredentialsIdItems();
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Configs from Git repository directory";
+        }
+    }
+}
@@ -19,11 +19,20 @@ import org.jenkinsci.plugins.github_branch_source.GitHubAppCredentials;
 import java.io.*;
 import java.util.Collections;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 
-public class ConfigSourceSCM implements ConfigSource, Serializable {
+public class ConfigSourceSCM implements RemoteConfigSource, Serializable {
 
-    private String yamlConfig;
+    private static final Pattern COMMIT_SHA = Pattern.compile("[0-9a-fA-F]{40}");
+
+    private static final Logger LOGGER = Logger.getLogger(ConfigSourceSCM.class.getName());
+
+    // Fetched content lives in the ConfigContentStore, older releases persisted it here and it is moved on load
+    private transient volatile String yamlConfig;
+    private transient volatile boolean hydrated;
 
     private String repositoryName;
     private String repositoryOwner;
@@ -32,6 +41,12 @@ public class ConfigSourceSCM implements ConfigSource, Serializable {
     private String credentialsId;
     private String path;
 
+    // Minutes between polls of this source, 0 falls back to the global refresh interval
+    private int refreshInterval;
+
+    // Blob SHA of the last downloaded content, lets unchanged files skip download and parsing
+    private transient volatile String blobSha;
+
     @DataBoundConstructor
     public ConfigSourceSCM(String repositoryName, String repositoryOwner, String ref, String credentialsId, String path) {
         this.ref = ref;
@@ -43,9 +58,47 @@ public class ConfigSourceSCM implements ConfigSource, Serializable {
 
     @Override
     public String getYamlConfig() {
+        hydrate();
         return yamlConfig;
     }
 
+    @Override
+    public void hydrate() {
+        if (hydrated) {
+            return;
+        }
+        synchronized (this) {
+            if (hydrated || Jenkins.getInstanceOrNull() == null) {
+                return;
+            }
+            try {
+                ConfigContentStore.SourceRef sourceRef = ConfigContentStore.get().readRef(getSourceKey());
+                if (sourceRef != null && yamlConfig == null) {
+                    String text = ConfigContentStore.get().readDocument(sourceRef.contentHash());
+                    if (text != null) {
+                        this.blobSha = sourceRef.blobSha();
+                        this.yamlConfig = text;
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to load stored content of " + getSourceKey(), e);
+            }
+            hydrated = true;
+        }
+    }
+
+    protected Object readResolve() {
+        if (yamlConfig != null && Jenkins.getInstanceOrNull() != null) {
+            try {
+                ConfigContentStore.get().write(getSourceKey(), yamlConfig, blobSha);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to move content of " + getSourceKey() + " to the content store", e);
+            }
+            hydrated = true;
+        }
+        return this;
+    }
+
     @DataBoundSetter
     void setCredentialsId(String credentialsId) {
         this.credentialsId = credentialsId;
@@ -91,17 +144,69 @@ public class ConfigSourceSCM implements ConfigSource, Serializable {
         return this.credentialsId;
     }
 
-    public void fetchConfiguration() throws IOException {
-        GitHub connect = Connector.connect("https://api.github.com", (GitHubAppCredentials) Utils.getCredentialsById(this.credentialsId));
-        try {
-            GHRepository repository = connect.getRepository(repositoryOwner + "/" + repositoryName);
-            GHContent content = repository.getFileContent(path, ref);
-            this.yamlConfig = Utils.readInputStream(content.read());
-        } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            Connector.release(connect);
+    @DataBoundSetter
+    public void setRefreshInterval(int refreshInterval) {
+        this.refreshInterval = Math.max(0, refreshInterval);
+    }
+
+    public int getRefreshInterval() {
+        return this.refreshInterval;
+    }
+
+    @Override
+    public String getSourceKey() {
+        return repositoryOwner + "/" + repositoryName + "@" + ref + ":" + path + "#" + credentialsId;
+    }
+
+    public String getBlobSha() {
+        hydrate();
+        return this.blobSha;
+    }
+
+    boolean isPinnedToCommit() {
+        return ref != null && COMMIT_SHA.matcher(ref).matches();
+    }
+
+    /**
+     * Fetches the file from GitHub unless it is known to be unchanged.
+     * Requests go through the HTTP cache of the {@link GitHubSession} client and are revalidated with
+     * {@code If-None-Match}, so an unchanged file costs two {@code 304} responses that do not count against the
+     * rate limit. For files below 1 MB the content comes with the metadata, larger ones are downloaded separately.
+     * Either way the text is only stored and parsed again when its blob SHA differs from the last one.
+     *
+     * @return {@code true} if new content was downloaded
+     */
+    public boolean fetchConfiguration() throws IOException {
+        try (GitHubSession session = new GitHubSession()) {
+            return fetchConfiguration(session);
+        }
+    }
+
+    /**
+     * Same as {@link #fetchConfiguration()}, reusing the client of the given session for this source's credentials.
+     */
+    @Override
+    public boolean fetchConfiguration(GitHubSession session) throws IOException {
+        hydrate();
+        if (yamlConfig != null && blobSha != null && isPinnedToCommit()) {
+            // Content addressed by a commit SHA can never change
+            return false;
+        }
+        long fetchStarted = System.nanoTime();
+        GitHub connect = session.connect(this.credentialsId);
+        GHRepository repository = connect.getRepository(repositoryOwner + "/" + repositoryName);
+        GHContent content = repository.getFileContent(path, ref);
+        if (yamlConfig != null && content.getSha() != null && content.getSha().equals(blobSha)) {
+            GlobalYAMLMetrics.get().recordSince(GlobalYAMLMetrics.FETCH_LATENCY, fetchStarted);
+            return false;
         }
+        String text = Utils.readInputStream(content.read());
+        GlobalYAMLMetrics.get().recordSince(GlobalYAMLMetrics.FETCH_LATENCY, fetchStarted);
+        GlobalYAMLMetrics.get().size(GlobalYAMLMetrics.FETCH_PAYLOAD).record(content.getSize());
+        ConfigContentStore.get().write(getSourceKey(), text, content.getSha());
+        this.blobSha = content.getSha();
+        this.yamlConfig = text;
+        return true;
     }
 
     @Override
@@ -138,7 +243,7 @@ public class ConfigSourceSCM implements ConfigSource, Serializable {
         ) {
             GitHubAppCredentials requestedCredentials = (GitHubAppCredentials) Utils.getCredentialsById(credentialsId);
             try {
-                GitHub connect = Connector.connect("https://api.github.com", requestedCredentials);
+                GitHub connect = Connector.connect(GitHubSession.GITHUB_API_URL, requestedCredentials);
                 try {
                     GHRepository repository = connect.getRepository(repositoryOwner + "/" + repositoryName);
                     GHContent content = repository.getFileContent(path, ref);
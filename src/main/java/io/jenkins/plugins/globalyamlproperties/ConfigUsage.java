@@ -0,0 +1,286 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Counts how often pipelines read each global config, and with {@code trackKeys} enabled each of its top-level keys.
+ * A read only increments a {@link LongAdder}; totals and last-read times are aggregated once a minute by
+ * {@link Aggregator} and kept in {@code JENKINS_HOME/global-yaml-properties/usage.json},
+ * so last-read times are accurate to the aggregation period.
+ */
+public final class ConfigUsage {
+
+    private static final Logger LOGGER = Logger.getLogger(ConfigUsage.class.getName());
+    private static final String LOG_PREFIX = "[GlobalYAMLPropertiesUsage] ";
+
+    static final boolean TRACK_KEYS = SystemProperties.getBoolean(ConfigUsage.class.getName() + ".trackKeys", false);
+
+    private static volatile ConfigUsage instance;
+
+    private final File home;
+    private final Path file;
+    private final Map<String, Counter> configs = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Counter>> keys = new ConcurrentHashMap<>();
+
+    ConfigUsage(File home, Path file) {
+        this.home = home;
+        this.file = file;
+    }
+
+    public static ConfigUsage get() {
+        File home = Jenkins.get().getRootDir();
+        ConfigUsage usage = instance;
+        if (usage == null || usage.home != home) {
+            synchronized (ConfigUsage.class) {
+                usage = instance;
+                if (usage == null || usage.home != home) {
+                    usage = new ConfigUsage(home, ConfigContentStore.get().getRoot().resolve("usage.json"));
+                    usage.load();
+                    instance = usage;
+                }
+            }
+        }
+        return usage;
+    }
+
+    public void recordRead(String configName) {
+        counter(configs, configName).reads.increment();
+    }
+
+    void recordKeyRead(String configName, String key) {
+        counter(keys.computeIfAbsent(configName, k -> new ConcurrentHashMap<>()), key).reads.increment();
+    }
+
+    private static Counter counter(Map<String, Counter> counters, String name) {
+        Counter counter = counters.get(name);
+        return counter != null ? counter : counters.computeIfAbsent(name, k -> new Counter(0, 0));
+    }
+
+    /**
+     * Folds the reads since the last call into the totals, stamping {@code now} as last-read time of everything read since.
+     *
+     * @return {@code true} if anything was read
+     */
+    synchronized boolean aggregate(long now) {
+        boolean changed = false;
+        for (Counter counter : configs.values()) {
+            changed |= counter.aggregate(now);
+        }
+        for (Map<String, Counter> counters : keys.values()) {
+            for (Counter counter : counters.values()) {
+                changed |= counter.aggregate(now);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Drops the usage of configs that no longer exist.
+     *
+     * @return {@code true} if anything was dropped
+     */
+    synchronized boolean retain(Set<String> configNames) {
+        return configs.keySet().retainAll(configNames) | keys.keySet().retainAll(configNames);
+    }
+
+    /**
+     * @return aggregated usage of the config, zero reads if it was never read
+     */
+    public Usage getUsage(String configName) {
+        Counter counter = configs.get(configName);
+        return counter == null ? new Usage(0, 0) : counter.snapshot();
+    }
+
+    /**
+     * @return aggregated usage of the top-level keys of the config, empty unless key tracking is enabled
+     */
+    public Map<String, Usage> getKeyUsage(String configName) {
+        Map<String, Counter> counters = keys.get(configName);
+        if (counters == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Usage> usage = new TreeMap<>();
+        counters.forEach((key, counter) -> usage.put(key, counter.snapshot()));
+        return usage;
+    }
+
+    /**
+     * @param reads    total reads
+     * @param lastRead time of the aggregation that first saw the latest read, 0 if never read
+     */
+    public record Usage(long reads, long lastRead) {
+    }
+
+    private static final class Counter {
+        // Never reset, resetting a LongAdder can lose increments that race with it
+        private final LongAdder reads = new LongAdder();
+        private final long loaded;
+        private volatile long aggregated;
+        private volatile long lastRead;
+
+        private Counter(long loaded, long lastRead) {
+            this.loaded = loaded;
+            this.lastRead = lastRead;
+        }
+
+        private boolean aggregate(long now) {
+            long sum = reads.sum();
+            if (sum == aggregated) {
+                return false;
+            }
+            aggregated = sum;
+            lastRead = now;
+            return true;
+        }
+
+        private Usage snapshot() {
+            return new Usage(loaded + aggregated, lastRead);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            JSONObject json = JSONObject.fromObject(Files.readString(file, StandardCharsets.UTF_8));
+            JSONObject configJson = json.optJSONObject("configs");
+            if (configJson == null) {
+                return;
+            }
+            for (Object name : configJson.keySet()) {
+                JSONObject entry = configJson.getJSONObject((String) name);
+                configs.put((String) name, new Counter(entry.optLong("reads"), entry.optLong("lastRead")));
+                JSONObject keyJson = entry.optJSONObject("keys");
+                if (keyJson != null) {
+                    Map<String, Counter> counters = new ConcurrentHashMap<>();
+                    for (Object key : keyJson.keySet()) {
+                        JSONObject keyEntry = keyJson.getJSONObject((String) key);
+                        counters.put((String) key, new Counter(keyEntry.optLong("reads"), keyEntry.optLong("lastRead")));
+                    }
+                    keys.put((String) name, counters);
+                }
+            }
+        } catch (IOException | JSONException e) {
+            LOGGER.log(Level.WARNING, LOG_PREFIX + "Ignoring unreadable usage file " + file, e);
+        }
+    }
+
+    synchronized void save() throws IOException {
+        JSONObject configJson = new JSONObject();
+        for (Map.Entry<String, Counter> config : new TreeMap<>(configs).entrySet()) {
+            JSONObject entry = toJSON(config.getValue());
+            Map<String, Counter> counters = keys.get(config.getKey());
+            if (counters != null && !counters.isEmpty()) {
+                JSONObject keyJson = new JSONObject();
+                new TreeMap<>(counters).forEach((key, counter) -> keyJson.put(key, toJSON(counter)));
+                entry.put("keys", keyJson);
+            }
+            configJson.put(config.getKey(), entry);
+        }
+        JSONObject json = new JSONObject();
+        json.put("configs", configJson);
+        ConfigContentStore.writeAtomically(file, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static JSONObject toJSON(Counter counter) {
+        Usage usage = counter.snapshot();
+        JSONObject json = new JSONObject();
+        json.put("reads", usage.reads());
+        json.put("lastRead", usage.lastRead());
+        return json;
+    }
+
+    /**
+     * One line of the usage table on the management page.
+     */
+    public static final class Row {
+        private final String name;
+        private final Usage usage;
+        private final Map<String, Usage> keys;
+        private final long now;
+
+        Row(String name, Usage usage, Map<String, Usage> keys, long now) {
+            this.name = name;
+            this.usage = usage;
+            this.keys = keys;
+            this.now = now;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getReads() {
+            return usage.reads();
+        }
+
+        public String getLastRead() {
+            return usage.lastRead() == 0 ? "Never" : Util.getTimeSpanString(Math.max(0, now - usage.lastRead())) + " ago";
+        }
+
+        public String getKeys() {
+            StringBuilder text = new StringBuilder();
+            keys.forEach((key, keyUsage) -> text.append(text.length() == 0 ? "" : ", ").append(key).append(" (").append(keyUsage.reads()).append(')'));
+            return text.toString();
+        }
+    }
+
+    /**
+     * @return usage of all current configs, least read first, so candidates for removal come first
+     */
+    public List<Row> getRows(long now) {
+        aggregate(now);
+        List<Row> rows = new ArrayList<>();
+        for (Config config : GlobalYAMLPropertiesConfiguration.get().getRegistry().getConfigs()) {
+            rows.add(new Row(config.getName(), getUsage(config.getName()), getKeyUsage(config.getName()), now));
+        }
+        rows.sort(Comparator.comparingLong(Row::getReads));
+        return rows;
+    }
+
+    @Extension
+    public static class Aggregator extends AsyncPeriodicWork {
+
+        public Aggregator() {
+            super("GlobalYAMLPropertiesUsageAggregator");
+        }
+
+        @Override
+        protected void execute(TaskListener listener) throws IOException {
+            ConfigUsage usage = ConfigUsage.get();
+            Set<String> names = new HashSet<>();
+            for (Config config : GlobalYAMLPropertiesConfiguration.get().getRegistry().getConfigs()) {
+                names.add(config.getName());
+            }
+            boolean changed = usage.aggregate(System.currentTimeMillis());
+            changed |= usage.retain(names);
+            if (changed) {
+                usage.save();
+            }
+        }
+
+        @Override
+        public long getRecurrencePeriod() {
+            return MIN;
+        }
+    }
+}
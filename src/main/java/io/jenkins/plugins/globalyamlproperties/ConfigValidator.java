@@ -1,13 +1,27 @@
 package io.jenkins.plugins.globalyamlproperties;
 
 import hudson.util.FormValidation;
+import jenkins.util.SystemProperties;
 import org.apache.commons.lang.StringUtils;
-import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.MarkedYAMLException;
 import org.yaml.snakeyaml.error.YAMLException;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class ConfigValidator {
+
+    static final int MAX_CACHED_RESULTS = SystemProperties.getInteger(ConfigValidator.class.getName() + ".maxCachedResults", 256);
+
+    // Results by content hash; validating text that was checked before neither parses nor allocates a tree
+    private static final Map<String, Result> RESULTS = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Result> eldest) {
+            return size() > MAX_CACHED_RESULTS;
+        }
+    };
+
     public static FormValidation validateName(String name) {
         if (name == null || name.isEmpty()) {
             return FormValidation.error("Name cannot be empty");
@@ -16,22 +30,82 @@ public class ConfigValidator {
     }
 
     public static FormValidation validateYamlConfig(String value) {
+        return validate(value).toFormValidation();
+    }
+
+    /**
+     * Validates a YAML config within the parser limits of {@link YAMLParseCache}.
+     * Results are cached by content hash, so checking the same text again costs one hash.
+     */
+    public static Result validate(String value) {
         if (StringUtils.isEmpty(value)) {
-            return FormValidation.warning("Config is empty");
+            return new Result(FormValidation.Kind.WARNING, "Config is empty", -1, -1);
+        }
+        // A string never has more code points than chars, so only texts over the limit in chars need counting
+        if (value.length() > YAMLParseCache.MAX_CODE_POINTS
+                && value.codePointCount(0, value.length()) > YAMLParseCache.MAX_CODE_POINTS) {
+            return new Result(FormValidation.Kind.ERROR,
+                    "Config is too large, the limit is " + YAMLParseCache.MAX_CODE_POINTS + " code points", -1, -1);
+        }
+        String hash = YAMLParseCache.contentHash(value);
+        synchronized (RESULTS) {
+            Result cached = RESULTS.get(hash);
+            if (cached != null) {
+                return cached;
+            }
         }
-        Yaml parser = new Yaml();
-        // Exception will be thrown also when YAML is actually valid but can not be cast to Map.
+        Result result = check(value);
+        synchronized (RESULTS) {
+            RESULTS.put(hash, result);
+        }
+        return result;
+    }
+
+    private static Result check(String value) {
+        Object parsedYAML;
         try {
-            Object parsedYAML = parser.load(value);
-            if (!(parsedYAML instanceof Map))
-                throw new GlobalYAMLPropertiesConfigurationException("Provided config's root element is not a Map");
+            parsedYAML = YAMLParseCache.parse(value);
+        } catch (MarkedYAMLException e) {
+            Mark mark = e.getProblemMark() != null ? e.getProblemMark() : e.getContextMark();
+            String problem = e.getProblem() != null ? e.getProblem() : e.getMessage();
+            if (mark == null) {
+                return new Result(FormValidation.Kind.ERROR, "Config is not a valid YAML file: " + problem, -1, -1);
+            }
+            return new Result(FormValidation.Kind.ERROR, "Config is not a valid YAML file: " + problem,
+                    mark.getLine() + 1, mark.getColumn() + 1);
         } catch (YAMLException e) {
-            return FormValidation.error("Config is not a valid YAML file");
-        } catch (GlobalYAMLPropertiesConfigurationException e) {
-            return FormValidation.error(
-                    "Specified YAML config is valid, but root element is not a Map. Please, use key-value format for root element");
+            // Parser limits (aliases, nesting depth, size) are reported without a position
+            return new Result(FormValidation.Kind.ERROR, "Config is not a valid YAML file: " + e.getMessage(), -1, -1);
+        }
+        if (!(parsedYAML instanceof Map)) {
+            return new Result(FormValidation.Kind.ERROR,
+                    "Specified YAML config is valid, but root element is not a Map. Please, use key-value format for root element", -1, -1);
+        }
+        return new Result(FormValidation.Kind.OK, "YAML config is valid", -1, -1);
+    }
+
+    static void clearCache() {
+        synchronized (RESULTS) {
+            RESULTS.clear();
         }
+    }
+
+    /**
+     * Outcome of {@link #validate(String)}; {@code line} and {@code column} are 1-based, or -1 when the problem has no position.
+     */
+    public record Result(FormValidation.Kind kind, String message, int line, int column) {
 
-        return FormValidation.ok("YAML config is valid");
+        public boolean isValid() {
+            return kind != FormValidation.Kind.ERROR;
+        }
+
+        public FormValidation toFormValidation() {
+            String text = line > 0 ? message + " (line " + line + ", column " + column + ")" : message;
+            return switch (kind) {
+                case OK -> FormValidation.ok(text);
+                case WARNING -> FormValidation.warning(text);
+                case ERROR -> FormValidation.error(text);
+            };
+        }
     }
 }
@@ -9,6 +9,7 @@ import hudson.util.FormValidation;
 import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.*;
+import org.kohsuke.stapler.verb.GET;
 import org.kohsuke.stapler.verb.POST;
 import org.springframework.lang.NonNull;
 
@@ -16,6 +17,8 @@ import jakarta.servlet.ServletException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 @Extension
@@ -26,6 +29,8 @@ public class ConfigurationManagementLink extends ManagementLink {
     public static final Permission VIEW_CONFIG = new Permission(PERMISSIONS, "View", Messages._permission_view(), Jenkins.ADMINISTER, PermissionScope.JENKINS);
     public static final Permission UPDATE_CONFIG = new Permission(PERMISSIONS, "Edit", Messages._permission_edit(), Jenkins.ADMINISTER, PermissionScope.JENKINS);
 
+    private static final Logger LOGGER = Logger.getLogger(ConfigurationManagementLink.class.getName());
+
     private List<Config> configs = new ArrayList<>();
 
     @Override
@@ -78,7 +83,7 @@ public class ConfigurationManagementLink extends ManagementLink {
         try {
             globalConfig.refreshConfiguration();
         } catch (IOException e) {
-            e.printStackTrace();
+            LOGGER.log(Level.WARNING, "Failed to refresh Global YAML Configuration", e);
         }
         globalConfig.save();
         return HttpResponses.redirectTo(".");
@@ -102,6 +107,116 @@ public class ConfigurationManagementLink extends ManagementLink {
         return null;
     }
 
+    /**
+     * Serves {@link GlobalYAMLMetrics} as JSON.
+     */
+    @GET
+    @SuppressWarnings("unused")
+    public HttpResponse doMetrics() {
+        if (!Jenkins.get().hasPermission(VIEW_CONFIG)) {
+            return HttpResponses.errorWithoutStack(403, "You have no permissions to view global configuration");
+        }
+        return HttpResponses.okJSON(GlobalYAMLMetrics.get().toJSON(System.currentTimeMillis()));
+    }
+
+    /**
+     * Serves a config ({@code ?name=}) or all configs of a category ({@code ?category=}) as JSON, or as YAML with
+     * {@code format=yaml}. Responses carry an entity tag derived from the content hashes, so polling clients
+     * sending {@code If-None-Match} get a 304 without a body, and are gzipped when the client accepts it.
+     */
+    @GET
+    @SuppressWarnings("unused")
+    public void doRead(StaplerRequest2 req, StaplerResponse2 rsp, @QueryParameter String name,
+                       @QueryParameter String category, @QueryParameter String format) throws IOException {
+        if (!Jenkins.get().hasPermission(VIEW_CONFIG)) {
+            rsp.sendError(403, "You have no permissions to view global configuration");
+            return;
+        }
+        ConfigResponseCache.Format responseFormat;
+        if (format == null || format.isEmpty() || format.equalsIgnoreCase("json")) {
+            responseFormat = ConfigResponseCache.Format.JSON;
+        } else if (format.equalsIgnoreCase("yaml")) {
+            responseFormat = ConfigResponseCache.Format.YAML;
+        } else {
+            rsp.sendError(400, "Unsupported format " + format + ", use json or yaml");
+            return;
+        }
+        boolean single = name != null && !name.isEmpty();
+        List<Config> configs;
+        if (single) {
+            try {
+                configs = List.of(GlobalYAMLPropertiesConfiguration.get().getConfigByName(name));
+            } catch (GlobalYAMLPropertiesConfigurationException e) {
+                rsp.sendError(404, "No configuration named " + name);
+                return;
+            }
+        } else if (category != null && !category.isEmpty()) {
+            configs = GlobalYAMLPropertiesConfiguration.get().getConfigsByCategory(category);
+            if (configs.isEmpty()) {
+                rsp.sendError(404, "No configurations in category " + category);
+                return;
+            }
+        } else {
+            rsp.sendError(400, "Specify either name or category");
+            return;
+        }
+
+        String etag = ConfigResponseCache.etag(configs, single, responseFormat);
+        String acceptEncoding = req.getHeader("Accept-Encoding");
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ENGLISH).contains("gzip");
+        // The compressed body is a different representation, so it gets a strong tag of its own
+        rsp.setHeader("ETag", gzip ? gzipEtag(etag) : etag);
+        rsp.setHeader("Cache-Control", "no-cache");
+        rsp.setHeader("Vary", "Accept-Encoding");
+        if (matches(req.getHeader("If-None-Match"), etag)) {
+            rsp.setStatus(304);
+            return;
+        }
+        ConfigResponseCache.Response response = ConfigResponseCache.get().get(configs, single, responseFormat);
+        byte[] body = response.getBody();
+        if (gzip) {
+            body = response.getGzipped();
+            rsp.setHeader("Content-Encoding", "gzip");
+        }
+        rsp.setContentType(responseFormat.getContentType());
+        rsp.setContentLength(body.length);
+        rsp.getOutputStream().write(body);
+    }
+
+    static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    /**
+     * If-None-Match uses weak comparison, so the tags of the identity and the gzip body both match.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String gzipEtag = gzipEtag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(etag) || trimmed.equals(gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return read counts of all configs for the usage table, empty without view permission
+     */
+    public List<ConfigUsage.Row> getUsage() {
+        if (!Jenkins.get().hasPermission(VIEW_CONFIG)) {
+            return List.of();
+        }
+        return ConfigUsage.get().getRows(System.currentTimeMillis());
+    }
+
     @POST
     public FormValidation doCheckName(@QueryParameter String value) {
         if (!Jenkins.get().hasPermission(UPDATE_CONFIG)) {
@@ -116,6 +231,8 @@ public class ConfigurationManagementLink extends ManagementLink {
         logger.info("getApplicableConfigSources");
         List<Descriptor<ConfigSource>> applicableConfigSources = new ArrayList<>();
         applicableConfigSources.add(Jenkins.get().getDescriptor(ConfigSourceSCM.class));
+        applicableConfigSources.add(Jenkins.get().getDescriptor(ConfigSourceGit.class));
+        applicableConfigSources.add(Jenkins.get().getDescriptor(ConfigSourceGitDirectory.class));
         applicableConfigSources.add(Jenkins.get().getDescriptor(ConfigSourceManual.class));
         return applicableConfigSources;
     }
@@ -0,0 +1,115 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * List counterpart of {@link CopyOnWriteYAMLMap}.
+ */
+public class CopyOnWriteYAMLList extends AbstractList<Object> implements RandomAccess, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final List<Object> shared;
+    private List<Object> own;
+    private Map<Integer, Object> views;
+    private transient ConfigDependencyIndex.Tracker tracker;
+    private transient String path;
+
+    public CopyOnWriteYAMLList(List<?> shared) {
+        this(shared, null, "");
+    }
+
+    @SuppressWarnings("unchecked")
+    CopyOnWriteYAMLList(List<?> shared, ConfigDependencyIndex.Tracker tracker, String path) {
+        this.shared = shared == null ? Collections.emptyList() : (List<Object>) shared;
+        this.tracker = tracker;
+        this.path = path;
+    }
+
+    private String childPath(int index) {
+        return tracker == null ? null : ConfigDiff.index(path, index);
+    }
+
+    private List<Object> ensureOwn() {
+        if (own == null) {
+            own = new ArrayList<>(shared);
+            own.replaceAll(CopyOnWriteYAMLMap::copy);
+            if (views != null) {
+                for (Map.Entry<Integer, Object> view : views.entrySet()) {
+                    own.set(view.getKey(), view.getValue());
+                }
+                views = null;
+            }
+        }
+        return own;
+    }
+
+    boolean isCopied() {
+        return own != null;
+    }
+
+    @Override
+    public Object get(int index) {
+        if (own != null) {
+            Object value = own.get(index);
+            CopyOnWriteYAMLMap.read(tracker, childPath(index), value);
+            if (CopyOnWriteYAMLMap.needsView(value)) {
+                value = CopyOnWriteYAMLMap.wrap(value, tracker, childPath(index));
+                own.set(index, value);
+            }
+            return value;
+        }
+        if (views != null) {
+            Object view = views.get(index);
+            if (view != null) {
+                return view;
+            }
+        }
+        Object value = shared.get(index);
+        CopyOnWriteYAMLMap.read(tracker, childPath(index), value);
+        if (CopyOnWriteYAMLMap.needsView(value) || CopyOnWriteYAMLMap.needsCopy(value)) {
+            if (views == null) {
+                views = new HashMap<>();
+            }
+            value = CopyOnWriteYAMLMap.wrap(value, tracker, childPath(index));
+            views.put(index, value);
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        if (tracker != null) {
+            tracker.record(path);
+        }
+        return own != null ? own.size() : shared.size();
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        return ensureOwn().set(index, element);
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        ensureOwn().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public Object remove(int index) {
+        Object removed = ensureOwn().remove(index);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        own = new ArrayList<>();
+        views = null;
+        modCount++;
+    }
+}
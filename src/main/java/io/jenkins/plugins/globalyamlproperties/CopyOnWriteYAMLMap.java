@@ -0,0 +1,264 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Map view over a shared parsed YAML tree handed out to pipelines.
+ * Reads go straight to the shared tree. The first write to this node copies this node only,
+ * nested maps and lists are wrapped into views of their own when they are read, so the shared
+ * tree is never modified. Sets ({@code !!set}), dates and binary values are mutable leaves, each view hands out
+ * its own copy of them.
+ * <p>
+ * Views handed out to jobs with a {@link ConfigDependencyIndex.Tracker} report the paths the pipeline reads:
+ * scalar values by their own path, whole maps and lists when they are iterated or sized.
+ */
+public class CopyOnWriteYAMLMap extends AbstractMap<Object, Object> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Map<Object, Object> shared;
+    private Map<Object, Object> own;
+    private Map<Object, Object> views;
+    // Tracking does not survive serialization, a resumed pipeline simply stops reporting reads
+    private transient ConfigDependencyIndex.Tracker tracker;
+    private transient String path;
+
+    public CopyOnWriteYAMLMap(Map<?, ?> shared) {
+        this(shared, null, "");
+    }
+
+    @SuppressWarnings("unchecked")
+    CopyOnWriteYAMLMap(Map<?, ?> shared, ConfigDependencyIndex.Tracker tracker, String path) {
+        this.shared = shared == null ? Collections.emptyMap() : (Map<Object, Object>) shared;
+        this.tracker = tracker;
+        this.path = path;
+    }
+
+    static boolean needsView(Object value) {
+        return (value instanceof Map && !(value instanceof CopyOnWriteYAMLMap))
+                || (value instanceof List && !(value instanceof CopyOnWriteYAMLList));
+    }
+
+    static boolean needsCopy(Object value) {
+        return value instanceof Set || value instanceof Date || value instanceof byte[];
+    }
+
+    static Object copy(Object value) {
+        if (value instanceof Set<?> set) {
+            return new LinkedHashSet<>(set);
+        }
+        if (value instanceof Date date) {
+            return date.clone();
+        }
+        if (value instanceof byte[] bytes) {
+            return bytes.clone();
+        }
+        return value;
+    }
+
+    static Object wrap(Object value, ConfigDependencyIndex.Tracker tracker, String path) {
+        if (value instanceof CopyOnWriteYAMLMap || value instanceof CopyOnWriteYAMLList) {
+            return value;
+        }
+        if (value instanceof Map<?, ?> map) {
+            return new CopyOnWriteYAMLMap(map, tracker, path);
+        }
+        if (value instanceof List<?> list) {
+            return new CopyOnWriteYAMLList(list, tracker, path);
+        }
+        return copy(value);
+    }
+
+    /**
+     * Reports a read of the value at {@code path} if this view is tracked.
+     */
+    static void read(ConfigDependencyIndex.Tracker tracker, String path, Object value) {
+        if (tracker != null && !(value instanceof Map) && !(value instanceof List)) {
+            tracker.record(path);
+        }
+    }
+
+    private String childPath(Object key) {
+        return tracker == null ? null : ConfigDiff.child(path, key);
+    }
+
+    private void readAll() {
+        if (tracker != null) {
+            tracker.record(path);
+        }
+    }
+
+    private Map<Object, Object> current() {
+        return own != null ? own : shared;
+    }
+
+    private Map<Object, Object> ensureOwn() {
+        if (own == null) {
+            own = new LinkedHashMap<>(shared);
+            own.replaceAll((key, value) -> copy(value));
+            if (views != null) {
+                own.putAll(views);
+                views = null;
+            }
+        }
+        return own;
+    }
+
+    boolean isCopied() {
+        return own != null;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (own != null) {
+            Object value = own.get(key);
+            read(tracker, childPath(key), value);
+            if (needsView(value)) {
+                value = wrap(value, tracker, childPath(key));
+                own.put(key, value);
+            }
+            return value;
+        }
+        if (views != null) {
+            Object view = views.get(key);
+            if (view != null) {
+                return view;
+            }
+        }
+        Object value = shared.get(key);
+        read(tracker, childPath(key), value);
+        if (needsView(value) || needsCopy(value)) {
+            if (views == null) {
+                views = new HashMap<>();
+            }
+            value = wrap(value, tracker, childPath(key));
+            views.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (tracker != null) {
+            tracker.record(childPath(key));
+        }
+        return current().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        readAll();
+        return current().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        readAll();
+        return current().isEmpty();
+    }
+
+    @Override
+    public Object put(Object key, Object value) {
+        return ensureOwn().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!current().containsKey(key)) {
+            return null;
+        }
+        return ensureOwn().remove(key);
+    }
+
+    @Override
+    public void putAll(Map<?, ?> m) {
+        ensureOwn().putAll(m);
+    }
+
+    @Override
+    public void clear() {
+        own = new LinkedHashMap<>();
+        views = null;
+    }
+
+    @Override
+    public Set<Entry<Object, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Object, Object>> iterator() {
+                readAll();
+                final Map<Object, Object> iterated = current();
+                final Iterator<Object> keys = iterated.keySet().iterator();
+                return new Iterator<>() {
+                    private Object last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return keys.hasNext();
+                    }
+
+                    @Override
+                    public Entry<Object, Object> next() {
+                        last = keys.next();
+                        return new ViewEntry(last);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (iterated == own) {
+                            keys.remove();
+                        } else {
+                            CopyOnWriteYAMLMap.this.remove(last);
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CopyOnWriteYAMLMap.this.size();
+            }
+        };
+    }
+
+    private final class ViewEntry implements Entry<Object, Object> {
+        private final Object key;
+
+        private ViewEntry(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return get(key);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry<?, ?> e && Objects.equals(key, e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
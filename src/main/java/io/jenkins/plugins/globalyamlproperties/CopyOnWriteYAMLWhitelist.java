@@ -0,0 +1,43 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.whitelists.AbstractWhitelist;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copy-on-write views only override plain {@link java.util.Map} and {@link java.util.List} operations,
+ * so sandboxed pipelines may call exactly those, just like on the collections returned before.
+ * Anything else declared on the views, e.g. {@code isCopied}, stays off limits.
+ */
+@Extension(optional = true)
+public class CopyOnWriteYAMLWhitelist extends AbstractWhitelist {
+
+    @Override
+    public boolean permitsMethod(@NonNull Method method, @NonNull Object receiver, @NonNull Object[] args) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (declaringClass == CopyOnWriteYAMLMap.class) {
+            return isInterfaceMethod(method, Map.class);
+        }
+        if (declaringClass == CopyOnWriteYAMLList.class) {
+            return isInterfaceMethod(method, List.class);
+        }
+        return false;
+    }
+
+    private static boolean isInterfaceMethod(Method method, Class<?> type) {
+        if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+            return false;
+        }
+        try {
+            type.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
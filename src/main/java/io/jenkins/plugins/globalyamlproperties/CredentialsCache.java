@@ -0,0 +1,77 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import com.cloudbees.plugins.credentials.Credentials;
+import com.cloudbees.plugins.credentials.CredentialsMatchers;
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.CredentialsUnavailableException;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves credentials by ID without enumerating every credential in the system on each lookup.
+ * Entries are dropped when the system credentials store is saved, and expire after a short time
+ * to also pick up changes from providers that are not backed by a saved file.
+ */
+final class CredentialsCache {
+
+    private static final long TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private static final Map<String, Entry> CACHE = new ConcurrentHashMap<>();
+
+    private CredentialsCache() {
+    }
+
+    static Credentials get(String credentialsId) {
+        Entry entry = CACHE.get(credentialsId);
+        if (entry != null && System.nanoTime() - entry.loadedAt < TTL_NANOS) {
+            return entry.credentials;
+        }
+        Credentials credentials = lookup(credentialsId);
+        CACHE.put(credentialsId, new Entry(credentials, System.nanoTime()));
+        return credentials;
+    }
+
+    static void invalidate() {
+        CACHE.clear();
+    }
+
+    private static Credentials lookup(String credentialsId) {
+        List<Credentials> credentialsList = CredentialsProvider.lookupCredentialsInItem(
+                Credentials.class,
+                null,
+                ACL.SYSTEM2,
+                Collections.emptyList()
+        );
+        Credentials requestedCredentials = CredentialsMatchers.firstOrNull(
+                credentialsList,
+                CredentialsMatchers.withId(credentialsId)
+        );
+        if (requestedCredentials == null) {
+            throw new CredentialsUnavailableException("No credentials found with ID: " + credentialsId);
+        }
+        return requestedCredentials;
+    }
+
+    private record Entry(Credentials credentials, long loadedAt) {
+    }
+
+    @Extension
+    public static class InvalidationListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof SystemCredentialsProvider) {
+                invalidate();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import com.cloudbees.hudson.plugins.folder.AbstractFolder;
+import com.cloudbees.hudson.plugins.folder.AbstractFolderProperty;
+import com.cloudbees.hudson.plugins.folder.AbstractFolderPropertyDescriptor;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.util.FormValidation;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.verb.POST;
+
+import java.util.Map;
+
+/**
+ * YAML configuration shared by every job below a folder of any kind, at any depth.
+ * See {@link LocalYAMLResolver} for how nested folders are combined.
+ */
+public class FolderYAMLProperty extends AbstractFolderProperty<AbstractFolder<?>> {
+
+    private String yamlConfiguration;
+    private String contentHash;
+    private transient volatile Map<String, Object> parsedConfig;
+
+    @DataBoundConstructor
+    public FolderYAMLProperty(String yamlConfiguration) {
+        this.yamlConfiguration = yamlConfiguration;
+        parseYamlConfig();
+    }
+
+    private void parseYamlConfig() {
+        parsedConfig = YAMLParseCache.parseMap(yamlConfiguration);
+        contentHash = yamlConfiguration == null ? null : YAMLParseCache.contentHash(yamlConfiguration);
+    }
+
+    public Map<String, Object> getParsedConfig() {
+        Map<String, Object> parsed = parsedConfig;
+        if (parsed == null) {
+            parsed = YAMLParseCache.parseMap(yamlConfiguration);
+            parsedConfig = parsed;
+        }
+        return parsed;
+    }
+
+    @DataBoundSetter
+    void setYamlConfiguration(String yamlConfiguration) {
+        this.yamlConfiguration = yamlConfiguration;
+        parseYamlConfig();
+    }
+
+    public String getYamlConfiguration() {
+        return yamlConfiguration;
+    }
+
+    /**
+     * @return SHA-256 of {@link #getYamlConfiguration()}
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends AbstractFolderPropertyDescriptor {
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Folder YAML Configuration";
+        }
+
+        @SuppressWarnings("unused")
+        @POST
+        public FormValidation doCheckYamlConfiguration(@QueryParameter String value) {
+            return ConfigValidator.validateYamlConfig(value);
+        }
+    }
+}
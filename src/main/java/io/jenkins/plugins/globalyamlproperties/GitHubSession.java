@@ -0,0 +1,143 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import io.jenkins.plugins.okhttp.api.JenkinsOkHttpClient;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import org.jenkinsci.plugins.github_branch_source.GitHubAppCredentials;
+import org.kohsuke.github.GHRateLimit;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubAbuseLimitHandler;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.GitHubRateLimitHandler;
+import org.kohsuke.github.extras.okhttp3.OkHttpGitHubConnector;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one authenticated {@link GitHub} client per credential for the duration of a refresh,
+ * so configs sharing a GitHub App pay for the token exchange and client setup once.
+ * Likewise every Git mirror is fetched at most once per refresh, see {@link #fetchOnce}.
+ * Safe to use from several refresh workers at the same time.
+ * <p>
+ * Clients have connect and read timeouts, so a stalled connection fails the fetch instead of blocking a refresh
+ * worker, whose thread cancelling cannot interrupt while it waits on a socket.
+ * <p>
+ * All clients share one HTTP cache under {@code JENKINS_HOME/caches/global-yaml-properties-http}. Every cached
+ * response is revalidated, so a repeated request is sent with {@code If-None-Match} and an unchanged resource comes
+ * back as {@code 304 Not Modified}, which does not count against the rate limit. A client that exhausted its rate
+ * limit fails the request instead of waiting for the reset, the refresh scheduler decides when to retry.
+ */
+public class GitHubSession implements Closeable {
+
+    static final String GITHUB_API_URL = "https://api.github.com";
+
+    static final int CONNECT_TIMEOUT = SystemProperties.getInteger(GitHubSession.class.getName() + ".connectTimeout", 10);
+    static final int READ_TIMEOUT = SystemProperties.getInteger(GitHubSession.class.getName() + ".readTimeout", 30);
+
+    static final long CACHE_SIZE = SystemProperties.getLong(GitHubSession.class.getName() + ".cacheSize", 20L * 1024 * 1024);
+
+    // Shared so that sessions reuse its connection pool and cache, every session derives its own client with the current proxy.
+    // Created on first use, there must never be two caches on the same directory
+    private static OkHttpClient baseClient;
+
+    private final Map<String, FutureTask<GitHub>> connections = new ConcurrentHashMap<>();
+    private final Map<String, FutureTask<String>> fetches = new ConcurrentHashMap<>();
+
+    /**
+     * Connects once per credential for the duration of the session. Concurrent callers wait for the first
+     * connection instead of blocking the map while it is set up.
+     */
+    public GitHub connect(String credentialsId) throws IOException {
+        return once(connections, String.valueOf(credentialsId),
+                () -> open((GitHubAppCredentials) Utils.getCredentialsById(credentialsId)), "connection setup");
+    }
+
+    private static GitHub open(GitHubAppCredentials credentials) throws IOException {
+        OkHttpClient client = JenkinsOkHttpClient.newClientBuilder(baseClient())
+                .connectTimeout(CONNECT_TIMEOUT, TimeUnit.SECONDS)
+                .readTimeout(READ_TIMEOUT, TimeUnit.SECONDS)
+                .build();
+        GitHubBuilder builder = new GitHubBuilder()
+                .withEndpoint(GITHUB_API_URL)
+                .withConnector(new OkHttpGitHubConnector(client, 0))
+                .withRateLimitHandler(GitHubRateLimitHandler.FAIL)
+                .withAbuseLimitHandler(GitHubAbuseLimitHandler.FAIL);
+        if (credentials != null) {
+            builder.withAppInstallationToken(credentials.getPassword().getPlainText());
+        }
+        return builder.build();
+    }
+
+    private static synchronized OkHttpClient baseClient() {
+        if (baseClient == null) {
+            OkHttpClient.Builder builder = new OkHttpClient.Builder();
+            if (CACHE_SIZE > 0) {
+                builder.cache(new Cache(new File(Jenkins.get().getRootDir(), "caches/global-yaml-properties-http"), CACHE_SIZE));
+            }
+            baseClient = builder.build();
+        }
+        return baseClient;
+    }
+
+    /**
+     * @return the rate limit reported by the last response for these credentials, without another API call
+     */
+    public GHRateLimit lastRateLimit(String credentialsId) {
+        FutureTask<GitHub> connection = credentialsId == null ? null : connections.get(credentialsId);
+        if (connection == null || !connection.isDone()) {
+            return null;
+        }
+        try {
+            return connection.get().lastRateLimit();
+        } catch (InterruptedException | ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs the fetch registered under the key once for the duration of the session, later callers, also concurrent
+     * ones, get the result or failure of that first fetch.
+     *
+     * @return the commit the fetch resolved
+     */
+    public String fetchOnce(String key, Callable<String> fetch) throws IOException {
+        return once(fetches, key, fetch, "fetch");
+    }
+
+    private static <T> T once(Map<String, FutureTask<T>> tasks, String key, Callable<T> work, String what) throws IOException {
+        FutureTask<T> task = new FutureTask<>(work);
+        FutureTask<T> existing = tasks.putIfAbsent(key, task);
+        if (existing == null) {
+            task.run();
+            existing = task;
+        }
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the " + what + " of " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException("The " + what + " of " + key + " failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        connections.clear();
+        fetches.clear();
+    }
+}
@@ -0,0 +1,164 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.eclipse.jgit.api.FetchCommand;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Local bare mirror of a remote Git repository under {@code JENKINS_HOME/caches/global-yaml-properties-git}, one per URL.
+ * A fetch transfers the tip commit of a single ref only (depth 1, no tags), and files are read straight from the
+ * object database by path, nothing is ever checked out.
+ */
+final class GitMirror {
+
+    private static final Logger LOGGER = Logger.getLogger(GitMirror.class.getName());
+    private static final String LOG_PREFIX = "[GlobalYAMLPropertiesGit] ";
+
+    static final int FETCH_TIMEOUT = SystemProperties.getInteger(GitMirror.class.getName() + ".fetchTimeout", 120);
+
+    private static final Pattern COMMIT_SHA = Pattern.compile("[0-9a-fA-F]{40}");
+
+    private static final Map<File, GitMirror> MIRRORS = new ConcurrentHashMap<>();
+
+    private final String url;
+    private final File dir;
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private GitMirror(String url, File dir) {
+        this.url = url;
+        this.dir = dir;
+    }
+
+    static GitMirror of(String url) {
+        File root = new File(Jenkins.get().getRootDir(), "caches/global-yaml-properties-git");
+        File dir = new File(root, YAMLParseCache.contentHash(url) + ".git");
+        return MIRRORS.computeIfAbsent(dir, k -> new GitMirror(url, k));
+    }
+
+    /**
+     * Brings the ref up to date with the remote. A ref pinned to a commit that is already mirrored is not fetched again.
+     *
+     * @param ref a branch name, a full ref name or a commit SHA
+     * @return the commit the ref points to
+     */
+    synchronized String fetch(String ref, StandardUsernamePasswordCredentials credentials) throws IOException {
+        boolean pinned = COMMIT_SHA.matcher(ref).matches();
+        String localRef = pinned ? "refs/pinned/" + ref : remoteRef(ref);
+        try (Git git = open()) {
+            if (pinned && git.getRepository().getObjectDatabase().has(ObjectId.fromString(ref))) {
+                return ref;
+            }
+            FetchCommand fetch = git.fetch()
+                    .setRemote(url)
+                    .setRefSpecs(new RefSpec("+" + (pinned ? ref : localRef) + ":" + localRef))
+                    .setDepth(1)
+                    .setTagOpt(TagOpt.NO_TAGS)
+                    .setTimeout(FETCH_TIMEOUT);
+            if (credentials != null) {
+                fetch.setCredentialsProvider(new UsernamePasswordCredentialsProvider(
+                        credentials.getUsername(), credentials.getPassword().getPlainText()));
+            }
+            fetch.call();
+            fetches.incrementAndGet();
+            ObjectId commit = git.getRepository().resolve(localRef);
+            if (commit == null) {
+                throw new IOException("Ref " + ref + " not found in " + url);
+            }
+            LOGGER.fine(LOG_PREFIX + "Fetched " + ref + " of " + url + " at " + commit.name());
+            return commit.name();
+        } catch (GitAPIException e) {
+            throw new IOException("Failed to fetch " + ref + " from " + url, e);
+        }
+    }
+
+    /**
+     * @return id of the blob at the path in the commit, {@code null} if there is no file at that path
+     */
+    String blobId(String commit, String path) throws IOException {
+        try (Repository repository = openRepository(); RevWalk walk = new RevWalk(repository)) {
+            try (TreeWalk treeWalk = TreeWalk.forPath(repository, normalize(path), walk.parseCommit(ObjectId.fromString(commit)).getTree())) {
+                return treeWalk == null || treeWalk.isSubtree() ? null : treeWalk.getObjectId(0).name();
+            }
+        }
+    }
+
+    /**
+     * Lists the regular files below a directory in one walk of the commit's tree, without reading any of them.
+     *
+     * @param directory path of the directory to walk, empty for the whole tree
+     * @return blob ids of the matching files by path, in path order
+     */
+    Map<String, String> listBlobs(String commit, String directory, Predicate<String> filter) throws IOException {
+        Map<String, String> blobs = new TreeMap<>();
+        try (Repository repository = openRepository(); RevWalk walk = new RevWalk(repository); TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(walk.parseCommit(ObjectId.fromString(commit)).getTree());
+            treeWalk.setRecursive(true);
+            if (!directory.isEmpty()) {
+                treeWalk.setFilter(PathFilter.create(directory));
+            }
+            while (treeWalk.next()) {
+                if ((treeWalk.getRawMode(0) & FileMode.TYPE_MASK) == FileMode.TYPE_FILE && filter.test(treeWalk.getPathString())) {
+                    blobs.put(treeWalk.getPathString(), treeWalk.getObjectId(0).name());
+                }
+            }
+        }
+        return blobs;
+    }
+
+    byte[] read(String blobId) throws IOException {
+        try (Repository repository = openRepository()) {
+            return repository.open(ObjectId.fromString(blobId), Constants.OBJ_BLOB).getBytes();
+        }
+    }
+
+    int getFetchCount() {
+        return fetches.get();
+    }
+
+    private Git open() throws IOException, GitAPIException {
+        if (new File(dir, "HEAD").isFile()) {
+            return Git.open(dir);
+        }
+        return Git.init().setBare(true).setDirectory(dir).call();
+    }
+
+    private Repository openRepository() throws IOException {
+        return new FileRepositoryBuilder().setGitDir(dir).setMustExist(true).build();
+    }
+
+    static String remoteRef(String ref) {
+        return ref.startsWith(Constants.R_REFS) ? ref : Constants.R_HEADS + ref;
+    }
+
+    static String normalize(String path) {
+        String normalized = path.replace('\\', '/');
+        while (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,127 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Cause;
+import hudson.model.CauseAction;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.triggers.Trigger;
+import hudson.triggers.TriggerDescriptor;
+import jenkins.model.Jenkins;
+import jenkins.model.ParameterizedJobMixIn;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import java.util.logging.Logger;
+
+/**
+ * Builds the job when a refresh changes a global config value its latest build read, see {@link ConfigDependencyIndex}.
+ * Builds are scheduled with a quiet period, so a burst of changes folds into one queued build.
+ */
+public class GlobalYAMLConfigTrigger extends Trigger<Job<?, ?>> {
+
+    private static final Logger LOGGER = Logger.getLogger(GlobalYAMLConfigTrigger.class.getName());
+    private static final String LOG_PREFIX = "[GlobalYAMLPropertiesTrigger] ";
+
+    static final int DEFAULT_QUIET_PERIOD = 60;
+
+    private int quietPeriod = DEFAULT_QUIET_PERIOD;
+
+    @DataBoundConstructor
+    public GlobalYAMLConfigTrigger() {
+        super();
+    }
+
+    @DataBoundSetter
+    public void setQuietPeriod(int quietPeriod) {
+        this.quietPeriod = Math.max(0, quietPeriod);
+    }
+
+    public int getQuietPeriod() {
+        return quietPeriod;
+    }
+
+    static GlobalYAMLConfigTrigger of(Job<?, ?> job) {
+        if (job instanceof ParameterizedJobMixIn.ParameterizedJob<?, ?> parameterizedJob) {
+            for (Trigger<?> trigger : parameterizedJob.getTriggers().values()) {
+                if (trigger instanceof GlobalYAMLConfigTrigger configTrigger) {
+                    return configTrigger;
+                }
+            }
+        }
+        return null;
+    }
+
+    void schedule(Job<?, ?> job, String configName) {
+        // An item already in the queue absorbs the new cause instead of queueing a second build
+        if (ParameterizedJobMixIn.scheduleBuild2(job, quietPeriod, new CauseAction(new ConfigChangeCause(configName))) == null) {
+            LOGGER.fine(LOG_PREFIX + "Could not schedule " + job.getFullName());
+        }
+    }
+
+    public static class ConfigChangeCause extends Cause {
+        private final String configName;
+
+        public ConfigChangeCause(String configName) {
+            this.configName = configName;
+        }
+
+        public String getConfigName() {
+            return configName;
+        }
+
+        @Override
+        public String getShortDescription() {
+            return "Started by a change of global YAML configuration " + configName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ConfigChangeCause cause && configName.equals(cause.configName);
+        }
+
+        @Override
+        public int hashCode() {
+            return configName.hashCode();
+        }
+    }
+
+    @Extension
+    public static class Scheduler extends ConfigChangeListener {
+
+        @Override
+        public void onChanged(Config config, ConfigDiff diff) {
+            // Refreshes run on worker threads without an authentication, which would see no jobs at all
+            try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+                for (String jobName : ConfigDependencyIndex.get().getAffectedJobs(config.getName(), diff)) {
+                    Job<?, ?> job = Jenkins.get().getItemByFullName(jobName, Job.class);
+                    GlobalYAMLConfigTrigger trigger = job == null ? null : of(job);
+                    if (trigger != null) {
+                        LOGGER.fine(LOG_PREFIX + "Scheduling " + jobName + " after a change of " + config.getName());
+                        trigger.schedule(job, config.getName());
+                    }
+                }
+            }
+        }
+    }
+
+    @Extension
+    @Symbol("globalYAMLConfigChange")
+    public static class DescriptorImpl extends TriggerDescriptor {
+
+        @Override
+        public boolean isApplicable(Item item) {
+            return item instanceof ParameterizedJobMixIn.ParameterizedJob<?, ?>;
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Build when a global YAML configuration value used by the last build changes";
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import jenkins.metrics.api.MetricProvider;
+import jenkins.metrics.api.Metrics;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes {@link GlobalYAMLMetrics} as gauges of the Metrics plugin, if it is installed.
+ * Metrics created later, such as those of a step's first call, are registered as they appear.
+ */
+@Extension(optional = true)
+public class GlobalYAMLMetricProvider extends MetricProvider {
+
+    private static final String PREFIX = "global-yaml-properties";
+
+    // The metrics plugin may ask for the set more than once, new metrics must still be registered only once
+    private final AtomicBoolean listening = new AtomicBoolean();
+
+    @NonNull
+    @Override
+    public MetricSet getMetricSet() {
+        GlobalYAMLMetrics metrics = GlobalYAMLMetrics.get();
+        Map<String, Metric> initial = new HashMap<>();
+        Set<String> names = new HashSet<>(metrics.getHistograms().keySet());
+        names.addAll(metrics.getCounters().keySet());
+        for (String name : names) {
+            initial.putAll(gauges(name));
+        }
+        initial.put(MetricRegistry.name(PREFIX, "refresh.staleness.max"),
+                (Gauge<Long>) () -> metrics.getMaxStaleness(System.currentTimeMillis()));
+        if (listening.compareAndSet(false, true)) {
+            metrics.addListener(GlobalYAMLMetricProvider::register);
+        }
+        return () -> initial;
+    }
+
+    private static void register(String name) {
+        MetricRegistry registry = Metrics.metricRegistry();
+        for (Map.Entry<String, Metric> entry : gauges(name).entrySet()) {
+            try {
+                registry.register(entry.getKey(), entry.getValue());
+            } catch (IllegalArgumentException e) {
+                // already registered
+            }
+        }
+    }
+
+    private static Map<String, Metric> gauges(String name) {
+        Map<String, Metric> gauges = new HashMap<>();
+        GlobalYAMLMetrics.Histogram histogram = GlobalYAMLMetrics.get().getHistograms().get(name);
+        if (histogram != null) {
+            gauges.put(MetricRegistry.name(PREFIX, name, "count"), (Gauge<Long>) histogram::getCount);
+            gauges.put(MetricRegistry.name(PREFIX, name, "mean"), (Gauge<Double>) histogram::getMean);
+            gauges.put(MetricRegistry.name(PREFIX, name, "max"), (Gauge<Long>) histogram::getMax);
+            gauges.put(MetricRegistry.name(PREFIX, name, "p95"), (Gauge<Long>) () -> histogram.getPercentile(0.95));
+        }
+        LongAdder counter = GlobalYAMLMetrics.get().getCounters().get(name);
+        if (counter != null) {
+            gauges.put(MetricRegistry.name(PREFIX, name), (Gauge<Long>) counter::sum);
+        }
+        return gauges;
+    }
+}
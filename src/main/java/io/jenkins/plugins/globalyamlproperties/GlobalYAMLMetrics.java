@@ -0,0 +1,236 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import net.sf.json.JSONObject;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * In-process metrics of refreshes, parsing, copying and steps. Recording only touches {@link LongAdder}s,
+ * so it is cheap enough for every step call; reading builds a snapshot.
+ * Served as JSON by {@link ConfigurationManagementLink} and bridged to the Metrics plugin when it is installed.
+ */
+public final class GlobalYAMLMetrics {
+
+    public static final String FETCH_LATENCY = "fetch.latency";
+    public static final String FETCH_PAYLOAD = "fetch.payload";
+    public static final String REFRESH_FAILURES = "refresh.failures";
+    public static final String PARSE_LATENCY = "parse.latency";
+    public static final String PARSE_CACHE_HITS = "parse.cacheHits";
+    public static final String COPY_LATENCY = "copy.latency";
+    public static final String STEP_PREFIX = "step.";
+
+    static final long[] LATENCY_BOUNDS_MICROS = {100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000};
+    static final long[] SIZE_BOUNDS_BYTES = {1024, 10 * 1024, 100 * 1024, 1024 * 1024, 10 * 1024 * 1024};
+
+    private static final GlobalYAMLMetrics INSTANCE = new GlobalYAMLMetrics();
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastSuccessfulRefresh = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private final long startedAt = System.currentTimeMillis();
+
+    GlobalYAMLMetrics() {
+        latency(FETCH_LATENCY);
+        latency(PARSE_LATENCY);
+        latency(COPY_LATENCY);
+        size(FETCH_PAYLOAD);
+        counter(REFRESH_FAILURES);
+        counter(PARSE_CACHE_HITS);
+    }
+
+    public static GlobalYAMLMetrics get() {
+        return INSTANCE;
+    }
+
+    public Histogram latency(String name) {
+        return histogram(name, "us", LATENCY_BOUNDS_MICROS);
+    }
+
+    public Histogram size(String name) {
+        return histogram(name, "bytes", SIZE_BOUNDS_BYTES);
+    }
+
+    private Histogram histogram(String name, String unit, long[] bounds) {
+        Histogram histogram = histograms.get(name);
+        if (histogram != null) {
+            return histogram;
+        }
+        boolean[] created = new boolean[1];
+        histogram = histograms.computeIfAbsent(name, k -> {
+            created[0] = true;
+            return new Histogram(unit, bounds);
+        });
+        if (created[0]) {
+            listeners.forEach(listener -> listener.accept(name));
+        }
+        return histogram;
+    }
+
+    public LongAdder counter(String name) {
+        LongAdder counter = counters.get(name);
+        if (counter != null) {
+            return counter;
+        }
+        boolean[] created = new boolean[1];
+        counter = counters.computeIfAbsent(name, k -> {
+            created[0] = true;
+            return new LongAdder();
+        });
+        if (created[0]) {
+            listeners.forEach(listener -> listener.accept(name));
+        }
+        return counter;
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos} on a latency histogram.
+     */
+    public void recordSince(String name, long startNanos) {
+        latency(name).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+    }
+
+    public void recordRefreshSuccess(String configName, long now) {
+        if (configName != null) {
+            lastSuccessfulRefresh.put(configName, now);
+        }
+    }
+
+    /**
+     * @return milliseconds since the last successful refresh of the config, or since startup if it has none
+     */
+    public long getStaleness(String configName, long now) {
+        Long last = configName == null ? null : lastSuccessfulRefresh.get(configName);
+        return now - (last == null ? startedAt : last);
+    }
+
+    /**
+     * @return the largest staleness among remote configs, 0 if there are none
+     */
+    public long getMaxStaleness(long now) {
+        long max = 0;
+        for (Config config : GlobalYAMLPropertiesConfiguration.get().getConfigs()) {
+            if (config.getConfigSource() instanceof RemoteConfigSource) {
+                max = Math.max(max, getStaleness(config.getName(), now));
+            }
+        }
+        return max;
+    }
+
+    public Map<String, Histogram> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    public Map<String, LongAdder> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    /**
+     * Calls the listener for every metric created from now on, e.g. the first call of a step.
+     */
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    public JSONObject toJSON(long now) {
+        JSONObject counterJson = new JSONObject();
+        new TreeMap<>(counters).forEach((name, counter) -> counterJson.put(name, counter.sum()));
+        JSONObject histogramJson = new JSONObject();
+        new TreeMap<>(histograms).forEach((name, histogram) -> histogramJson.put(name, histogram.toJSON()));
+        JSONObject stalenessJson = new JSONObject();
+        for (Config config : GlobalYAMLPropertiesConfiguration.get().getConfigs()) {
+            if (config.getConfigSource() instanceof RemoteConfigSource) {
+                stalenessJson.put(config.getName(), getStaleness(config.getName(), now));
+            }
+        }
+        JSONObject json = new JSONObject();
+        json.put("counters", counterJson);
+        json.put("histograms", histogramJson);
+        json.put("stalenessMillis", stalenessJson);
+        return json;
+    }
+
+    /**
+     * Fixed bucket histogram; percentiles are reported as the upper bound of the bucket they fall into.
+     */
+    public static final class Histogram {
+
+        private final String unit;
+        private final long[] bounds;
+        private final LongAdder[] buckets;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        Histogram(String unit, long[] bounds) {
+            this.unit = unit;
+            this.bounds = bounds;
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void record(long value) {
+            int bucket = 0;
+            while (bucket < bounds.length && value > bounds[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            count.increment();
+            sum.add(value);
+            max.accumulate(value);
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getMean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        public long getPercentile(double quantile) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * n);
+            long seen = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank) {
+                    return Math.min(bounds[i], getMax());
+                }
+            }
+            return getMax();
+        }
+
+        JSONObject toJSON() {
+            JSONObject json = new JSONObject();
+            json.put("unit", unit);
+            json.put("count", getCount());
+            json.put("mean", getMean());
+            json.put("max", getMax());
+            json.put("p50", getPercentile(0.5));
+            json.put("p95", getPercentile(0.95));
+            json.put("p99", getPercentile(0.99));
+            return json;
+        }
+    }
+}
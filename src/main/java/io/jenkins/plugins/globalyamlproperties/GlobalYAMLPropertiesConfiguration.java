@@ -2,6 +2,8 @@ package io.jenkins.plugins.globalyamlproperties;
 
 import hudson.Extension;
 import hudson.ExtensionList;
+import hudson.util.Secret;
+import io.jenkins.plugins.globalyamlproperties.scmpolling.ConfigRefreshEngine;
 import jenkins.model.GlobalConfiguration;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.DataBoundSetter;
@@ -10,6 +12,7 @@ import org.kohsuke.stapler.StaplerRequest2;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
+import java.util.logging.Logger;
 
 /**
  * Example of Jenkins global configuration.
@@ -22,79 +25,89 @@ public class GlobalYAMLPropertiesConfiguration extends GlobalConfiguration imple
         return ExtensionList.lookupSingleton(GlobalYAMLPropertiesConfiguration.class);
     }
 
+    private static final Logger LOGGER = Logger.getLogger(GlobalYAMLPropertiesConfiguration.class.getName());
+
     private List<Config> configs = new ArrayList<>();
     private int refreshInterval = 60;
+    private int refreshParallelism = 4;
+    private int refreshTimeout = 60;
+    private Secret webhookSecret;
+
+    private transient volatile ConfigRegistry registry = ConfigRegistry.EMPTY;
 
     public GlobalYAMLPropertiesConfiguration() {
         // When Jenkins is restarted, load any saved configuration from disk.
         load();
+        rebuildRegistry();
+        migrateLegacyData();
+    }
+
+    /**
+     * Rewrites the configuration file once if it still holds parsed YAML trees written by older releases.
+     */
+    private void migrateLegacyData() {
+        if (configs != null && configs.stream().anyMatch(Config::isLegacyDataMigrated)) {
+            LOGGER.info("Removing persisted parsed YAML from " + getConfigFile());
+            save();
+        }
     }
 
     public List<Config> getConfigs() {
         return configs;
     }
 
+    /**
+     * @return the current lookup snapshot; never {@code null}
+     */
+    public ConfigRegistry getRegistry() {
+        ConfigRegistry current = registry;
+        return current == null ? ConfigRegistry.EMPTY : current;
+    }
+
+    void rebuildRegistry() {
+        registry = new ConfigRegistry(configs == null ? Collections.emptyList() : configs);
+    }
+
     public Config getConfigByName(String name) throws GlobalYAMLPropertiesConfigurationException {
-        for (Config config : configs) {
-            if (config.getName().equals(name)) {
-                return config;
-            }
+        Config config = getRegistry().getConfigByName(name);
+        if (config == null) {
+            throw new GlobalYAMLPropertiesConfigurationException("Config with name " + name + " not found");
         }
-        throw new GlobalYAMLPropertiesConfigurationException("Config with name " + name + " not found");
+        return config;
     }
 
     public List<String> getConfigNames() {
-        List<String> configNames = new ArrayList<>();
-        for (Config config : configs) {
-            configNames.add(config.getName());
-        }
-        return configNames;
+        return getRegistry().getConfigNames();
     }
 
     void refreshConfiguration() throws IOException {
-        for (Config config : configs) {
-            config.refreshConfiguration();
+        ConfigRefreshEngine.RefreshSummary summary = ConfigRefreshEngine.fromConfiguration(this).refresh(configs);
+        rebuildRegistry();
+        if (summary.failed() > 0 || summary.timedOut() > 0) {
+            throw new IOException("Not all configurations were refreshed: " + summary);
         }
     }
 
     public List<Config> getConfigsByCategory(String category) {
-        List<Config> collectedConfigs = new ArrayList<>();
-        for (Config config : configs) {
-            if (config.getCategory().equals(category)) {
-                collectedConfigs.add(config);
-            }
-        }
-        return collectedConfigs;
+        return getRegistry().getConfigsByCategory(category);
     }
 
     public List<String> getConfigNamesByCategory(String category) {
-        List<String> collectedConfigNames = new ArrayList<>();
-        for (Config config : configs) {
-            if (config.getCategory().equals(category)) {
-                collectedConfigNames.add(config.getName());
-            }
-        }
-        return collectedConfigNames;
+        return getRegistry().getConfigNamesByCategory(category);
     }
 
     public List<String> getCategories() {
-        Set<String> categories = new HashSet<>();
-        for(final Config config: getConfigs()) {
-            if (config.getCategory() == null || config.getCategory().isEmpty()) {
-                continue;
-            }
-            categories.add(config.getCategory());
-        }
-        return new ArrayList<>(categories);
+        return getRegistry().getCategories();
     }
 
     public Config getDefaultConfig() {
-        return configs.get(0);
+        return getRegistry().getDefaultConfig();
     }
 
     @DataBoundSetter
     public void setConfigs(List<Config> configs) {
         this.configs = configs;
+        rebuildRegistry();
         save();
     }
 
@@ -108,6 +121,36 @@ public class GlobalYAMLPropertiesConfiguration extends GlobalConfiguration imple
         return this.refreshInterval;
     }
 
+    @DataBoundSetter
+    public void setRefreshParallelism(int refreshParallelism) {
+        this.refreshParallelism = refreshParallelism;
+        save();
+    }
+
+    public int getRefreshParallelism() {
+        return Math.max(1, this.refreshParallelism);
+    }
+
+    @DataBoundSetter
+    public void setRefreshTimeout(int refreshTimeout) {
+        this.refreshTimeout = refreshTimeout;
+        save();
+    }
+
+    public int getRefreshTimeout() {
+        return Math.max(1, this.refreshTimeout);
+    }
+
+    @DataBoundSetter
+    public void setWebhookSecret(Secret webhookSecret) {
+        this.webhookSecret = webhookSecret;
+        save();
+    }
+
+    public Secret getWebhookSecret() {
+        return this.webhookSecret;
+    }
+
     @Override
     public boolean configure(StaplerRequest2 req, JSONObject json) throws FormException {
         String configsField = "configs";
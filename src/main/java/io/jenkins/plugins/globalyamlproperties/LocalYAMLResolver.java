@@ -0,0 +1,178 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import com.cloudbees.hudson.plugins.folder.AbstractFolder;
+import hudson.Extension;
+import hudson.PluginWrapper;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Job;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import jenkins.model.Jenkins;
+
+import java.lang.ref.SoftReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves the local YAML configuration of a job: the {@link FolderYAMLProperty} of every enclosing folder from the
+ * outermost one inwards, the {@link MultibranchYAMLJobProperty} of a multibranch project, and finally the job's own
+ * {@link PipelineYAMLJobProperty}, deep-merged so that inner layers win.
+ * <p>
+ * The resolved chain and its merged tree are memoized per job and dropped when the job or any folder above it is saved,
+ * moved or deleted, so lookups do not walk the hierarchy or merge again.
+ */
+public final class LocalYAMLResolver {
+
+    private static final LocalYAMLResolver INSTANCE = new LocalYAMLResolver();
+
+    private final Map<String, Resolved> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation, a chain walked while one happened is not memoized
+    private final AtomicLong generation = new AtomicLong();
+
+    LocalYAMLResolver() {
+    }
+
+    public static LocalYAMLResolver get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the layers of the job, from the outermost folder to the job itself
+     */
+    List<MergedYAMLConfigCache.Layer> getLayers(Job<?, ?> job) {
+        return resolved(job).layers;
+    }
+
+    /**
+     * @return a key that changes whenever the content of any layer of the job changes
+     */
+    public String getVersion(Job<?, ?> job) {
+        return resolved(job).version;
+    }
+
+    /**
+     * @return the merged tree if it is memoized, otherwise {@code null}
+     */
+    public Map<String, Object> getIfPresent(Job<?, ?> job) {
+        Resolved resolved = entries.get(job.getFullName());
+        return resolved == null ? null : resolved.tree.get();
+    }
+
+    /**
+     * @return immutable merged tree of all layers, empty if there are none
+     */
+    public Map<String, Object> resolve(Job<?, ?> job) {
+        Resolved resolved = resolved(job);
+        Map<String, Object> merged = resolved.tree.get();
+        if (merged == null) {
+            merged = Collections.emptyMap();
+            for (MergedYAMLConfigCache.Layer layer : resolved.layers) {
+                merged = MergedYAMLConfigCache.deepMerge(merged, layer.tree().get());
+            }
+            resolved.tree = new SoftReference<>(merged);
+        }
+        return merged;
+    }
+
+    private Resolved resolved(Job<?, ?> job) {
+        Resolved resolved = entries.get(job.getFullName());
+        if (resolved != null) {
+            return resolved;
+        }
+        long walkedAt = generation.get();
+        resolved = walk(job);
+        if (generation.get() == walkedAt) {
+            entries.put(job.getFullName(), resolved);
+        }
+        return resolved;
+    }
+
+    private static Resolved walk(Job<?, ?> job) {
+        List<MergedYAMLConfigCache.Layer> layers = new ArrayList<>();
+        ItemGroup<?> parent = job.getParent();
+        while (parent instanceof AbstractFolder<?> folder) {
+            List<MergedYAMLConfigCache.Layer> level = new ArrayList<>(2);
+            FolderYAMLProperty folderProperty = folder.getProperties().get(FolderYAMLProperty.class);
+            if (folderProperty != null) {
+                level.add(new MergedYAMLConfigCache.Layer(folderProperty.getContentHash(), folderProperty::getParsedConfig));
+            }
+            if (isMultibranchProject(folder)) {
+                MultibranchYAMLJobProperty multibranchProperty = folder.getProperties().get(MultibranchYAMLJobProperty.class);
+                if (multibranchProperty != null) {
+                    level.add(new MergedYAMLConfigCache.Layer(multibranchProperty.getContentHash(), multibranchProperty::getParsedConfig));
+                }
+            }
+            layers.addAll(0, level);
+            parent = folder.getParent();
+        }
+        PipelineYAMLJobProperty jobProperty = job.getProperty(PipelineYAMLJobProperty.class);
+        if (jobProperty != null) {
+            layers.add(new MergedYAMLConfigCache.Layer(jobProperty.getContentHash(), jobProperty::getParsedConfig));
+        }
+
+        StringBuilder version = new StringBuilder();
+        for (MergedYAMLConfigCache.Layer layer : layers) {
+            version.append(layer.version()).append('|');
+        }
+        return new Resolved(List.copyOf(layers), version.toString());
+    }
+
+    private static boolean isMultibranchProject(AbstractFolder<?> folder) {
+        PluginWrapper plugin = Jenkins.get().pluginManager.getPlugin("workflow-multibranch");
+        return plugin != null && plugin.isActive()
+                && folder instanceof org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
+    }
+
+    /**
+     * Drops the memoized chains of the item and of everything below it.
+     */
+    void invalidate(String fullName) {
+        generation.incrementAndGet();
+        String prefix = fullName + "/";
+        entries.keySet().removeIf(name -> name.equals(fullName) || name.startsWith(prefix));
+    }
+
+    private static final class Resolved {
+        private final List<MergedYAMLConfigCache.Layer> layers;
+        private final String version;
+        private volatile SoftReference<Map<String, Object>> tree = new SoftReference<>(null);
+
+        private Resolved(List<MergedYAMLConfigCache.Layer> layers, String version) {
+            this.layers = layers;
+            this.version = version;
+        }
+    }
+
+    @Extension
+    public static class InvalidationListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof AbstractFolder<?> || o instanceof Job<?, ?>) {
+                INSTANCE.invalidate(((Item) o).getFullName());
+            }
+        }
+    }
+
+    @Extension
+    public static class ItemInvalidationListener extends ItemListener {
+        @Override
+        public void onUpdated(Item item) {
+            INSTANCE.invalidate(item.getFullName());
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            INSTANCE.invalidate(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            INSTANCE.invalidate(oldFullName);
+            INSTANCE.invalidate(newFullName);
+        }
+    }
+}
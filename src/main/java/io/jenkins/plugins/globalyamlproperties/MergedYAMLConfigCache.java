@@ -0,0 +1,144 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.listeners.ItemListener;
+
+import java.lang.ref.SoftReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Deep merge of a global {@link Config} with the local YAML layers of a job, see {@link LocalYAMLResolver}.
+ * Later layers win: job over folders over global. Maps are merged key by key, any other value,
+ * lists included, replaces the one below it.
+ * <p>
+ * Every job keeps its last merged tree per global config together with the content hashes of the layers
+ * it was built from, so the tree is rebuilt only when one of the layers changes.
+ */
+public final class MergedYAMLConfigCache {
+
+    private static final MergedYAMLConfigCache INSTANCE = new MergedYAMLConfigCache();
+
+    private final Map<String, Map<String, Entry>> entries = new ConcurrentHashMap<>();
+
+    MergedYAMLConfigCache() {
+    }
+
+    public static MergedYAMLConfigCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the merged tree if it is cached for the current layer versions, otherwise {@code null}
+     */
+    public Map<String, Object> getIfPresent(Job<?, ?> job, Config global) {
+        Entry entry = entry(job, global);
+        if (entry == null || !entry.version.equals(version(layers(job, global)))) {
+            return null;
+        }
+        return entry.tree.get();
+    }
+
+    /**
+     * @return immutable merged tree, shared by all callers until a layer changes
+     */
+    public Map<String, Object> resolve(Job<?, ?> job, Config global) {
+        List<Layer> layers = layers(job, global);
+        String version = version(layers);
+        Entry entry = entry(job, global);
+        Map<String, Object> merged = entry != null && entry.version.equals(version) ? entry.tree.get() : null;
+        if (merged == null) {
+            merged = Collections.emptyMap();
+            for (Layer layer : layers) {
+                merged = deepMerge(merged, layer.tree.get());
+            }
+            entries.computeIfAbsent(job.getFullName(), name -> new ConcurrentHashMap<>())
+                    .put(configName(global), new Entry(version, new SoftReference<>(merged)));
+        }
+        return merged;
+    }
+
+    /**
+     * Drops the trees of the item and, for folders, of every job below it.
+     */
+    void invalidate(String fullName) {
+        entries.remove(fullName);
+        String prefix = fullName + "/";
+        entries.keySet().removeIf(name -> name.startsWith(prefix));
+    }
+
+    private Entry entry(Job<?, ?> job, Config global) {
+        Map<String, Entry> byConfig = entries.get(job.getFullName());
+        return byConfig == null ? null : byConfig.get(configName(global));
+    }
+
+    private static String configName(Config global) {
+        return global == null ? "" : global.getName();
+    }
+
+    static List<Layer> layers(Job<?, ?> job, Config global) {
+        List<Layer> localLayers = LocalYAMLResolver.get().getLayers(job);
+        if (global == null) {
+            return localLayers;
+        }
+        List<Layer> layers = new ArrayList<>(localLayers.size() + 1);
+        layers.add(new Layer(global.getContentHash(), global::getConfigMap));
+        layers.addAll(localLayers);
+        return layers;
+    }
+
+    private static String version(List<Layer> layers) {
+        StringBuilder version = new StringBuilder();
+        for (Layer layer : layers) {
+            version.append(layer.version).append('|');
+        }
+        return version.toString();
+    }
+
+    /**
+     * Merges {@code override} into {@code base} without modifying either; subtrees only present in one of them are shared.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> deepMerge(Map<String, Object> base, Map<String, Object> override) {
+        if (override == null || override.isEmpty()) {
+            return base;
+        }
+        if (base.isEmpty()) {
+            return override;
+        }
+        Map<String, Object> merged = new LinkedHashMap<>(base);
+        for (Map.Entry<String, Object> entry : override.entrySet()) {
+            Object below = merged.get(entry.getKey());
+            Object above = entry.getValue();
+            if (below instanceof Map && above instanceof Map) {
+                merged.put(entry.getKey(), deepMerge((Map<String, Object>) below, (Map<String, Object>) above));
+            } else {
+                merged.put(entry.getKey(), above);
+            }
+        }
+        return Collections.unmodifiableMap(merged);
+    }
+
+    record Layer(String version, Supplier<Map<String, Object>> tree) {
+    }
+
+    private record Entry(String version, SoftReference<Map<String, Object>> tree) {
+    }
+
+    @Extension
+    public static class CleanupListener extends ItemListener {
+
+        @Override
+        public void onDeleted(Item item) {
+            INSTANCE.invalidate(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            INSTANCE.invalidate(oldFullName);
+        }
+    }
+}
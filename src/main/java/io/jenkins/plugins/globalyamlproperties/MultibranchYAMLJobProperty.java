@@ -4,43 +4,57 @@ import com.cloudbees.hudson.plugins.folder.AbstractFolderProperty;
 import com.cloudbees.hudson.plugins.folder.AbstractFolderPropertyDescriptor;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
+import hudson.PluginWrapper;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
 import hudson.util.FormValidation;
+import jenkins.model.Jenkins;
 import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.verb.POST;
-import org.yaml.snakeyaml.Yaml;
 
-import java.util.HashMap;
+import java.io.IOException;
 import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class MultibranchYAMLJobProperty extends AbstractFolderProperty<WorkflowMultiBranchProject> {
 
+    private static final Logger LOGGER = Logger.getLogger(MultibranchYAMLJobProperty.class.getName());
+
     private String yamlConfiguration;
-    private Map<String, Object> parsedConfig;
+    private String contentHash;
+    // Rebuilt from yamlConfiguration on demand; older releases persisted it, such data is read once and dropped in readResolve
+    private transient volatile Map<String, Object> parsedConfig;
+    private transient boolean legacyDataMigrated;
 
     @DataBoundConstructor
     public MultibranchYAMLJobProperty(String yamlConfiguration) {
         this.yamlConfiguration = yamlConfiguration;
-        if (yamlConfiguration.isEmpty()) {
-            this.parsedConfig = new HashMap<>();
-        } else {
-            parseYamlConfig();
-        }
+        parseYamlConfig();
     }
 
     private void parseYamlConfig() {
-        Yaml parser = new Yaml();
-        parsedConfig = parser.load(yamlConfiguration);
-        parser = null;
+        parsedConfig = YAMLParseCache.parseMap(yamlConfiguration);
+        contentHash = yamlConfiguration == null ? null : YAMLParseCache.contentHash(yamlConfiguration);
     }
 
     public Map<String, Object> getParsedConfig() {
-        if (parsedConfig == null) {
-            parseYamlConfig();
+        Map<String, Object> parsed = parsedConfig;
+        if (parsed == null) {
+            parsed = YAMLParseCache.parseMap(yamlConfiguration);
+            parsedConfig = parsed;
         }
-        return parsedConfig;
+        return parsed;
+    }
+
+    /**
+     * @return {@code true} if {@link #getParsedConfig()} returns without parsing
+     */
+    public boolean isParsed() {
+        return parsedConfig != null;
     }
 
     @DataBoundSetter
@@ -53,6 +67,52 @@ public class MultibranchYAMLJobProperty extends AbstractFolderProperty<WorkflowM
         return yamlConfiguration;
     }
 
+    /**
+     * @return SHA-256 of {@link #getYamlConfiguration()}
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    protected Object readResolve() {
+        if (parsedConfig != null) {
+            parsedConfig = null;
+            legacyDataMigrated = true;
+        }
+        if (contentHash == null && yamlConfiguration != null) {
+            contentHash = YAMLParseCache.contentHash(yamlConfiguration);
+            legacyDataMigrated = true;
+        }
+        return this;
+    }
+
+    /**
+     * Rewrites the {@code config.xml} of multibranch projects still holding parsed YAML written by older releases.
+     * Does nothing without the optional workflow-multibranch plugin.
+     */
+    @Initializer(after = InitMilestone.JOB_CONFIG_ADAPTED)
+    public static void migrateLegacyData() {
+        PluginWrapper plugin = Jenkins.get().pluginManager.getPlugin("workflow-multibranch");
+        if (plugin != null && plugin.isActive()) {
+            migrateMultibranchProjects();
+        }
+    }
+
+    // Kept apart so that WorkflowMultiBranchProject is only resolved when the plugin is there
+    private static void migrateMultibranchProjects() {
+        for (WorkflowMultiBranchProject project : Jenkins.get().getAllItems(WorkflowMultiBranchProject.class)) {
+            MultibranchYAMLJobProperty property = project.getProperties().get(MultibranchYAMLJobProperty.class);
+            if (property != null && property.legacyDataMigrated) {
+                try {
+                    project.save();
+                    property.legacyDataMigrated = false;
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Failed to remove persisted parsed YAML from " + project.getFullName(), e);
+                }
+            }
+        }
+    }
+
     @Extension
     public static class DescriptorImpl extends AbstractFolderPropertyDescriptor {
         @NonNull
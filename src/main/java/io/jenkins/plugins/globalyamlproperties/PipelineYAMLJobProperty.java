@@ -12,13 +12,10 @@ import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.StaplerRequest2;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.verb.POST;
-import org.yaml.snakeyaml.Yaml;
 
-import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.io.Serial;
 import java.io.Serializable;
-import java.util.HashMap;
+import java.lang.ref.SoftReference;
 import java.util.Map;
 
 
@@ -26,36 +23,48 @@ import java.util.Map;
 public class PipelineYAMLJobProperty extends JobProperty<AbstractProject<?, ?>> implements Serializable {
 
     private final String yamlConfiguration;
-    private transient HashMap<String, Object> parsedConfig;
+    // Built on first use, not while Jenkins loads jobs; may be dropped under memory pressure and is then rebuilt
+    private transient SoftReference<Map<String, Object>> parsedConfig;
+    private transient volatile String contentHash;
 
     @DataBoundConstructor
     public PipelineYAMLJobProperty(String yamlConfiguration) {
         this.yamlConfiguration = yamlConfiguration;
-        Yaml parser = new Yaml();
-        parsedConfig = parser.load(yamlConfiguration);
-        parser = null;
     }
 
     public String getYamlConfiguration() {
         return yamlConfiguration;
     }
 
-    @Serial
-    private void readObject(@NonNull ObjectInputStream ois) throws ClassNotFoundException, IOException {
-        ois.defaultReadObject();
-        Yaml parser = new Yaml();
-        this.parsedConfig = parser.load(yamlConfiguration);
-        parser = null;
+    /**
+     * @return SHA-256 of {@link #getYamlConfiguration()}
+     */
+    public String getContentHash() {
+        String hash = contentHash;
+        if (hash == null && yamlConfiguration != null) {
+            hash = YAMLParseCache.contentHash(yamlConfiguration);
+            contentHash = hash;
+        }
+        return hash;
     }
 
     public Map<String, Object> getParsedConfig() {
-        if (parsedConfig == null) {
-            Yaml parser = new Yaml();
-            parsedConfig = parser.load(yamlConfiguration);
+        SoftReference<Map<String, Object>> reference = parsedConfig;
+        Map<String, Object> parsed = reference == null ? null : reference.get();
+        if (parsed == null) {
+            parsed = YAMLParseCache.parseMap(yamlConfiguration);
+            parsedConfig = new SoftReference<>(parsed);
         }
-        return parsedConfig == null ? new HashMap<>() : parsedConfig;
+        return parsed;
     }
 
+    /**
+     * @return {@code true} if {@link #getParsedConfig()} returns without parsing
+     */
+    public boolean isParsed() {
+        SoftReference<Map<String, Object>> reference = parsedConfig;
+        return reference != null && reference.get() != null;
+    }
 
     @Extension
     public static class DescriptorImpl extends JobPropertyDescriptor {
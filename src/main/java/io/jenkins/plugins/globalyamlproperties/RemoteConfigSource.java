@@ -0,0 +1,34 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import java.io.IOException;
+
+/**
+ * A {@link ConfigSource} whose content is fetched from a repository on refresh and kept in the
+ * {@link ConfigContentStore} in between. Sources of this kind are polled by the refresh scheduler.
+ */
+public interface RemoteConfigSource extends ConfigSource {
+
+    /**
+     * Identifies the fetched file independently of the {@link Config} instance, which is recreated on every save.
+     */
+    String getSourceKey();
+
+    String getCredentialsId();
+
+    /**
+     * @return minutes between polls of this source, 0 to use the global refresh interval
+     */
+    int getRefreshInterval();
+
+    /**
+     * Loads the content last fetched for this source from the {@link ConfigContentStore}, once.
+     */
+    void hydrate();
+
+    /**
+     * Fetches the content unless it is known to be unchanged.
+     *
+     * @return {@code true} if new content was downloaded
+     */
+    boolean fetchConfiguration(GitHubSession session) throws IOException;
+}
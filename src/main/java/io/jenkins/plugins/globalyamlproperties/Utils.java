@@ -1,12 +1,9 @@
 package io.jenkins.plugins.globalyamlproperties;
 
-import com.cloudbees.plugins.credentials.*;
-import hudson.security.ACL;
+import com.cloudbees.plugins.credentials.Credentials;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.util.Collections;
-import java.util.List;
 import java.util.Map;
 
 public class Utils {
@@ -22,30 +19,37 @@ public class Utils {
     }
 
     public static Map<String, Object> deepCopyMap(Map<String, Object> orig) throws IOException, ClassNotFoundException {
+        long started = System.nanoTime();
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         ObjectOutputStream oos = new ObjectOutputStream(bos);
         oos.writeObject(orig);
         oos.flush();
         ByteArrayInputStream bin = new ByteArrayInputStream(bos.toByteArray());
         ObjectInputStream ois = new ObjectInputStream(bin);
-        return (Map<String, Object>) ois.readObject();
+        Map<String, Object> copy = (Map<String, Object>) ois.readObject();
+        GlobalYAMLMetrics.get().recordSince(GlobalYAMLMetrics.COPY_LATENCY, started);
+        return copy;
     }
 
-    static Credentials getCredentialsById(String credentialsId) {
-        List<Credentials> credentialsList = CredentialsProvider.lookupCredentialsInItem(
-                Credentials.class,
-                null,
-                ACL.SYSTEM2,
-                Collections.emptyList()
-        );
-        Credentials requestedCredentials = CredentialsMatchers.firstOrNull(
-                credentialsList,
-                CredentialsMatchers.withId(credentialsId)
-        );
-        if (requestedCredentials == null) {
-            throw new CredentialsUnavailableException("No credentials found with ID: " + credentialsId);
-        }
-        return requestedCredentials;
+    /**
+     * Returns a copy-on-write view over a shared parsed map. Reading is free, writes copy only the touched nodes.
+     */
+    public static Map<String, Object> copyOnWriteView(Map<String, Object> shared) {
+        return copyOnWriteView(shared, null);
+    }
 
+    /**
+     * @param tracker records the paths read through the view, may be {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> copyOnWriteView(Map<String, Object> shared, ConfigDependencyIndex.Tracker tracker) {
+        long started = System.nanoTime();
+        Map<String, Object> view = (Map<String, Object>) (Map<?, ?>) new CopyOnWriteYAMLMap(shared, tracker, "");
+        GlobalYAMLMetrics.get().recordSince(GlobalYAMLMetrics.COPY_LATENCY, started);
+        return view;
+    }
+
+    static Credentials getCredentialsById(String credentialsId) {
+        return CredentialsCache.get(credentialsId);
     }
 }
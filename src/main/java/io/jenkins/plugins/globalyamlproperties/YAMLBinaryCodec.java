@@ -0,0 +1,206 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact binary form of a parsed YAML tree, read back much faster than the YAML text can be parsed.
+ * Covers the types SnakeYAML produces for plain documents; {@link #encode(Object)} rejects anything else.
+ * <p>
+ * A map, list or set referenced from several places, as anchors and aliases produce, is written once and then
+ * referred to by the order in which it was first written, so the encoded form and the decoded tree stay as small
+ * as the document instead of expanding every alias.
+ */
+final class YAMLBinaryCodec {
+
+    private static final int VERSION = 2;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte STRING = 6;
+    private static final byte BIG_INTEGER = 7;
+    private static final byte DATE = 8;
+    private static final byte BYTES = 9;
+    private static final byte MAP = 10;
+    private static final byte LIST = 11;
+    private static final byte SET = 12;
+    private static final byte REFERENCE = 13;
+
+    private YAMLBinaryCodec() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the tree holds a value of an unsupported type
+     */
+    static byte[] encode(Object tree) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            write(out, tree, new IdentityHashMap<>());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException if the data is truncated, corrupt or written by another codec version
+     */
+    static Object decode(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary YAML version " + version);
+            }
+            return read(in, new ArrayList<>());
+        }
+    }
+
+    private static void write(DataOutputStream out, Object value, Map<Object, Integer> written) throws IOException {
+        if (value instanceof Map || value instanceof List || value instanceof Set) {
+            Integer id = written.get(value);
+            if (id != null) {
+                out.writeByte(REFERENCE);
+                out.writeInt(id);
+                return;
+            }
+            written.put(value, written.size());
+        }
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(b ? TRUE : FALSE);
+        } else if (value instanceof Integer i) {
+            out.writeByte(INT);
+            out.writeInt(i);
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeLong(l);
+        } else if (value instanceof Double d) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(d);
+        } else if (value instanceof String s) {
+            out.writeByte(STRING);
+            writeBytes(out, s.getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof BigInteger bi) {
+            out.writeByte(BIG_INTEGER);
+            writeBytes(out, bi.toByteArray());
+        } else if (value instanceof Date date) {
+            out.writeByte(DATE);
+            out.writeLong(date.getTime());
+        } else if (value instanceof byte[] data) {
+            out.writeByte(BYTES);
+            writeBytes(out, data);
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                write(out, entry.getKey(), written);
+                write(out, entry.getValue(), written);
+            }
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object item : list) {
+                write(out, item, written);
+            }
+        } else if (value instanceof Set<?> set) {
+            out.writeByte(SET);
+            out.writeInt(set.size());
+            for (Object item : set) {
+                write(out, item, written);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported YAML value type " + value.getClass().getName());
+        }
+    }
+
+    // Containers are registered before their content is read, in the order the writer numbered them
+    private static Object read(DataInputStream in, List<Object> read) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case STRING:
+                return new String(readBytes(in), StandardCharsets.UTF_8);
+            case BIG_INTEGER:
+                return new BigInteger(readBytes(in));
+            case DATE:
+                return new Date(in.readLong());
+            case BYTES:
+                return readBytes(in);
+            case MAP: {
+                int size = readSize(in);
+                Map<Object, Object> map = new LinkedHashMap<>(size * 4 / 3 + 1);
+                read.add(map);
+                for (int i = 0; i < size; i++) {
+                    map.put(read(in, read), read(in, read));
+                }
+                return map;
+            }
+            case LIST: {
+                int size = readSize(in);
+                List<Object> list = new ArrayList<>(size);
+                read.add(list);
+                for (int i = 0; i < size; i++) {
+                    list.add(read(in, read));
+                }
+                return list;
+            }
+            case SET: {
+                int size = readSize(in);
+                Set<Object> set = new LinkedHashSet<>(size * 4 / 3 + 1);
+                read.add(set);
+                for (int i = 0; i < size; i++) {
+                    set.add(read(in, read));
+                }
+                return set;
+            }
+            case REFERENCE: {
+                int id = in.readInt();
+                if (id < 0 || id >= read.size()) {
+                    throw new IOException("Corrupt binary YAML, invalid reference " + id);
+                }
+                return read.get(id);
+            }
+            default:
+                throw new IOException("Unknown binary YAML tag " + tag);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] data) throws IOException {
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] data = new byte[readSize(in)];
+        in.readFully(data);
+        return data;
+    }
+
+    private static int readSize(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0 || size > in.available()) {
+            // Every element takes at least one byte, a larger size can only come from corrupt data
+            throw new IOException("Corrupt binary YAML, invalid size " + size);
+        }
+        return size;
+    }
+}
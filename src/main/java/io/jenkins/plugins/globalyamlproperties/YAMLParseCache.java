@@ -0,0 +1,183 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import jenkins.util.SystemProperties;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Parses YAML documents for every part of the plugin. Documents are keyed by the SHA-256 of their text,
+ * so identical documents (e.g. the same local YAML on many jobs) are parsed once and share one immutable tree.
+ * <p>
+ * Trees are held through soft references, so the garbage collector may drop them under memory pressure,
+ * and the total size of cached documents is bounded by {@code maxCachedChars}, evicting least recently used ones first.
+ * <p>
+ * Parsing is bounded by {@link #loaderOptions()}: at most {@code maxAliases} aliases, {@code maxNestingDepth}
+ * levels of nesting and {@code maxCodePoints} code points per document.
+ */
+public final class YAMLParseCache {
+
+    static final long MAX_CACHED_CHARS = SystemProperties.getLong(YAMLParseCache.class.getName() + ".maxCachedChars", 64L * 1024 * 1024);
+
+    // Parser limits, they keep alias bombs and absurdly deep or large documents from tying up a thread
+    static final int MAX_ALIASES = SystemProperties.getInteger(YAMLParseCache.class.getName() + ".maxAliases", 50);
+    static final int MAX_NESTING_DEPTH = SystemProperties.getInteger(YAMLParseCache.class.getName() + ".maxNestingDepth", 50);
+    static final int MAX_CODE_POINTS = SystemProperties.getInteger(YAMLParseCache.class.getName() + ".maxCodePoints", 3 * 1024 * 1024);
+
+    private static final ThreadLocal<Yaml> PARSER = ThreadLocal.withInitial(() -> new Yaml(loaderOptions()));
+
+    private static final LinkedHashMap<String, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cachedChars;
+
+    private YAMLParseCache() {
+    }
+
+    /**
+     * @return immutable tree of the document, an empty map for an empty document
+     * @throws YAMLException if the document is not valid YAML or its root is not a map
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseMap(String yaml) {
+        Object tree = parse(yaml);
+        if (tree == null) {
+            return Collections.emptyMap();
+        }
+        if (!(tree instanceof Map)) {
+            throw new YAMLException("Root element of YAML config is not a Map");
+        }
+        return (Map<String, Object>) tree;
+    }
+
+    /**
+     * @return immutable tree of the document, {@code null} for an empty document
+     * @throws YAMLException if the document is not valid YAML
+     */
+    public static Object parse(String yaml) {
+        if (yaml == null || yaml.isEmpty()) {
+            return null;
+        }
+        String hash = contentHash(yaml);
+        Object cached = lookup(hash);
+        if (cached != null) {
+            GlobalYAMLMetrics.get().counter(GlobalYAMLMetrics.PARSE_CACHE_HITS).increment();
+            return cached;
+        }
+        long started = System.nanoTime();
+        Object tree = freeze(PARSER.get().load(yaml));
+        GlobalYAMLMetrics.get().recordSince(GlobalYAMLMetrics.PARSE_LATENCY, started);
+        store(hash, tree, yaml.length());
+        return tree;
+    }
+
+    static LoaderOptions loaderOptions() {
+        LoaderOptions options = new LoaderOptions();
+        options.setMaxAliasesForCollections(MAX_ALIASES);
+        options.setNestingDepthLimit(MAX_NESTING_DEPTH);
+        options.setCodePointLimit(MAX_CODE_POINTS);
+        options.setAllowRecursiveKeys(false);
+        return options;
+    }
+
+    /**
+     * Seeds the cache with a tree decoded elsewhere, e.g. from {@link ConfigContentStore}, so the text is not parsed again.
+     */
+    static void prime(String hash, Object tree, int chars) {
+        if (lookup(hash) == null) {
+            store(hash, freeze(tree), chars);
+        }
+    }
+
+    public static String contentHash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static synchronized Object lookup(String hash) {
+        Entry entry = ENTRIES.get(hash);
+        if (entry == null) {
+            return null;
+        }
+        Object tree = entry.tree.get();
+        if (tree == null) {
+            ENTRIES.remove(hash);
+            cachedChars -= entry.chars;
+        }
+        return tree;
+    }
+
+    private static synchronized void store(String hash, Object tree, int chars) {
+        if (tree == null || chars > MAX_CACHED_CHARS) {
+            return;
+        }
+        Entry previous = ENTRIES.put(hash, new Entry(new SoftReference<>(tree), chars));
+        if (previous != null) {
+            cachedChars -= previous.chars;
+        }
+        cachedChars += chars;
+        Iterator<Entry> eldest = ENTRIES.values().iterator();
+        while (cachedChars > MAX_CACHED_CHARS && eldest.hasNext()) {
+            cachedChars -= eldest.next().chars;
+            eldest.remove();
+        }
+    }
+
+    static synchronized void clear() {
+        ENTRIES.clear();
+        cachedChars = 0;
+    }
+
+    static Object freeze(Object node) {
+        return freeze(node, new IdentityHashMap<>());
+    }
+
+    // Aliased nodes are frozen once and stay shared, copying them per reference would expand the document exponentially
+    private static Object freeze(Object node, Map<Object, Object> frozen) {
+        if (!(node instanceof Map) && !(node instanceof List) && !(node instanceof Set)) {
+            // Mutable leaves (Date, byte[]) stay as they are, views copy them when handing them out
+            return node;
+        }
+        Object done = frozen.get(node);
+        if (done != null) {
+            return done;
+        }
+        // The view is registered before its content is filled in, so self-referencing nodes terminate
+        if (node instanceof Map<?, ?> map) {
+            Map<Object, Object> entries = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+            Map<Object, Object> copy = Collections.unmodifiableMap(entries);
+            frozen.put(node, copy);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                entries.put(entry.getKey(), freeze(entry.getValue(), frozen));
+            }
+            return copy;
+        }
+        if (node instanceof Set<?> set) {
+            Set<Object> members = new LinkedHashSet<>(set.size() * 4 / 3 + 1);
+            Set<Object> copy = Collections.unmodifiableSet(members);
+            frozen.put(node, copy);
+            for (Object member : set) {
+                members.add(freeze(member, frozen));
+            }
+            return copy;
+        }
+        List<Object> items = new ArrayList<>(((List<?>) node).size());
+        List<Object> copy = Collections.unmodifiableList(items);
+        frozen.put(node, copy);
+        for (Object item : (List<?>) node) {
+            items.add(freeze(item, frozen));
+        }
+        return copy;
+    }
+
+    private record Entry(SoftReference<Object> tree, int chars) {
+    }
+}
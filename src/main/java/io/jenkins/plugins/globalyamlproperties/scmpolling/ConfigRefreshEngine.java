@@ -0,0 +1,161 @@
+package io.jenkins.plugins.globalyamlproperties.scmpolling;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkins.plugins.globalyamlproperties.Config;
+import io.jenkins.plugins.globalyamlproperties.ConfigSourceSCM;
+import io.jenkins.plugins.globalyamlproperties.GitHubSession;
+import io.jenkins.plugins.globalyamlproperties.GlobalYAMLMetrics;
+import io.jenkins.plugins.globalyamlproperties.GlobalYAMLPropertiesConfiguration;
+import io.jenkins.plugins.globalyamlproperties.RemoteConfigSource;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Refreshes configs on a bounded worker pool. Every config is fetched and parsed exactly once per call,
+ * a fetch exceeding the timeout is cancelled so it cannot hold up the rest of the cycle.
+ * Results are published by the configs themselves as soon as each fetch finishes.
+ * <p>
+ * Cancelling does not interrupt a blocked socket read, so a worker may stay stuck and keep queued configs from
+ * starting. The whole cycle therefore also has a deadline, the time every config would take with its full timeout,
+ * after which all configs still pending are given up.
+ */
+public class ConfigRefreshEngine {
+
+    private static final Logger LOGGER = Logger.getLogger(ConfigRefreshEngine.class.getName());
+    private static final String LOG_PREFIX = "[GlobalYAMLPropertiesRefresh] ";
+    private static final long POLL_INTERVAL_MILLIS = 500;
+
+    private final int parallelism;
+    private final long timeoutNanos;
+
+    public ConfigRefreshEngine(int parallelism, int timeoutSeconds) {
+        this.parallelism = Math.max(1, parallelism);
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(Math.max(1, timeoutSeconds));
+    }
+
+    public static ConfigRefreshEngine fromConfiguration(GlobalYAMLPropertiesConfiguration configuration) {
+        return new ConfigRefreshEngine(configuration.getRefreshParallelism(), configuration.getRefreshTimeout());
+    }
+
+    public RefreshSummary refresh(Collection<Config> configs) {
+        if (configs.isEmpty()) {
+            return new RefreshSummary(0, 0, 0);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, configs.size()),
+                new NamingThreadFactory(new DaemonThreadFactory(), "GlobalYAMLPropertiesRefresh"));
+        GitHubSession session = new GitHubSession();
+        CompletionService<Boolean> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<Boolean>, Config> pending = new HashMap<>();
+        // Configs do not override equals, so this is keyed by identity
+        Map<Config, Long> started = new ConcurrentHashMap<>();
+        long cycleTimeoutNanos = cycleTimeoutNanos(configs.size());
+        long deadline = System.nanoTime() + cycleTimeoutNanos;
+        int refreshed = 0;
+        int failed = 0;
+        int timedOut = 0;
+        try {
+            for (Config config : groupByCredentials(configs)) {
+                Future<Boolean> future = completionService.submit(() -> {
+                    started.put(config, System.nanoTime());
+                    try {
+                        return config.refreshConfiguration(session);
+                    } finally {
+                        if (config.getConfigSource() instanceof ConfigSourceSCM source) {
+                            RateLimitBudget.get().record(source.getCredentialsId(), session.lastRateLimit(source.getCredentialsId()));
+                        }
+                    }
+                });
+                pending.put(future, config);
+            }
+
+            while (!pending.isEmpty()) {
+                Future<Boolean> done = completionService.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (done != null) {
+                    Config config = pending.remove(done);
+                    if (config != null) {
+                        started.remove(config);
+                        try {
+                            boolean changed = done.get();
+                            refreshed++;
+                            RefreshScheduler.get().recordResult(config, changed, System.currentTimeMillis());
+                            GlobalYAMLMetrics.get().recordRefreshSuccess(config.getName(), System.currentTimeMillis());
+                            LOGGER.fine(LOG_PREFIX + "Refreshed " + config.getName() + (changed ? "" : " (unchanged)"));
+                        } catch (ExecutionException e) {
+                            failed++;
+                            RefreshScheduler.get().recordFailure(config, System.currentTimeMillis());
+                            GlobalYAMLMetrics.get().counter(GlobalYAMLMetrics.REFRESH_FAILURES).increment();
+                            LOGGER.log(Level.WARNING, LOG_PREFIX + "Error refreshing " + config.getName(), e.getCause());
+                        }
+                    }
+                }
+
+                long now = System.nanoTime();
+                Iterator<Map.Entry<Future<Boolean>, Config>> iterator = pending.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<Future<Boolean>, Config> entry = iterator.next();
+                    Long start = started.get(entry.getValue());
+                    if (start != null && now - start > timeoutNanos) {
+                        entry.getKey().cancel(true);
+                        started.remove(entry.getValue());
+                        iterator.remove();
+                        timedOut++;
+                        RefreshScheduler.get().recordFailure(entry.getValue(), System.currentTimeMillis());
+                        GlobalYAMLMetrics.get().counter(GlobalYAMLMetrics.REFRESH_FAILURES).increment();
+                        LOGGER.warning(LOG_PREFIX + "Refresh of " + entry.getValue().getName() + " timed out after "
+                                + TimeUnit.NANOSECONDS.toSeconds(timeoutNanos) + " seconds");
+                    }
+                }
+
+                if (!pending.isEmpty() && now - deadline > 0) {
+                    LOGGER.warning(LOG_PREFIX + "Refresh cycle exceeded its deadline of " + TimeUnit.NANOSECONDS.toSeconds(cycleTimeoutNanos)
+                            + " seconds, giving up " + pending.size() + " configs");
+                    for (Map.Entry<Future<Boolean>, Config> entry : pending.entrySet()) {
+                        entry.getKey().cancel(true);
+                        timedOut++;
+                        RefreshScheduler.get().recordFailure(entry.getValue(), System.currentTimeMillis());
+                        GlobalYAMLMetrics.get().counter(GlobalYAMLMetrics.REFRESH_FAILURES).increment();
+                    }
+                    pending.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warning(LOG_PREFIX + "Refresh interrupted, " + pending.size() + " configs were not refreshed");
+        } finally {
+            executor.shutdownNow();
+            session.close();
+        }
+        return new RefreshSummary(refreshed, failed, timedOut);
+    }
+
+    long cycleTimeoutNanos(int configs) {
+        int rounds = (configs + parallelism - 1) / parallelism;
+        return timeoutNanos * Math.max(1, rounds);
+    }
+
+    // Configs sharing credentials are submitted together, so a group's client is set up once and reused right away
+    static List<Config> groupByCredentials(Collection<Config> configs) {
+        Map<String, List<Config>> groups = new LinkedHashMap<>();
+        for (Config config : configs) {
+            String credentialsId = config.getConfigSource() instanceof RemoteConfigSource source
+                    ? source.getCredentialsId() : "";
+            groups.computeIfAbsent(String.valueOf(credentialsId), k -> new ArrayList<>()).add(config);
+        }
+        List<Config> ordered = new ArrayList<>(configs.size());
+        for (List<Config> group : groups.values()) {
+            ordered.addAll(group);
+        }
+        return ordered;
+    }
+
+    public record RefreshSummary(int refreshed, int failed, int timedOut) {
+        @Override
+        public String toString() {
+            return refreshed + " refreshed, " + failed + " failed, " + timedOut + " timed out";
+        }
+    }
+}
@@ -4,11 +4,10 @@ import hudson.Extension;
 import hudson.model.AsyncPeriodicWork;
 import hudson.model.TaskListener;
 import io.jenkins.plugins.globalyamlproperties.Config;
-import io.jenkins.plugins.globalyamlproperties.ConfigSourceSCM;
 import io.jenkins.plugins.globalyamlproperties.GlobalYAMLPropertiesConfiguration;
 
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
 import java.util.logging.Logger;
 
 @Extension
@@ -22,29 +21,25 @@ public class GitHubFetchTask extends AsyncPeriodicWork {
 
     @Override
     protected void execute(TaskListener listener) throws IOException {
-        // Place your logic to fetch content using the Kohsuke GitHub API here
-        LOGGER.info(LOG_PREFIX + "Refreshing GlobalYAMLProperties configuration...");
-
-        for (Config config: GlobalYAMLPropertiesConfiguration.get().getConfigs()) {
-            LOGGER.info(LOG_PREFIX + "Processing " + config.getName() + "...");
-            try {
-                if (config.getConfigSource() instanceof ConfigSourceSCM configSourceSCM) {
-                    configSourceSCM.fetchConfiguration();
-                }
-                config.refreshConfiguration();
-            } catch (Exception e) {
-                LOGGER.severe(LOG_PREFIX + "Error refreshing " + config.getName() + ": " + e.getMessage());
-                e.printStackTrace();
-            }
-            config.refreshConfiguration();
-            LOGGER.info(LOG_PREFIX + "Refresh " + config.getName() + "...");
+        GlobalYAMLPropertiesConfiguration configuration = GlobalYAMLPropertiesConfiguration.get();
+        long now = System.currentTimeMillis();
+        // Scheduled polls are the lowest priority, they are the first to wait when a credential runs low on quota
+        List<Config> dueConfigs = RateLimitBudget.get().admit(RefreshScheduler.get().dueConfigs(configuration.getConfigs(), now), now);
+        if (dueConfigs.isEmpty()) {
+            LOGGER.fine(LOG_PREFIX + "No configuration is due for refresh");
+            return;
         }
 
-        LOGGER.info(LOG_PREFIX + "Refresh completed. Next refresh after " + TimeUnit.MILLISECONDS.toMinutes(getRecurrencePeriod()) + " minutes.");
+        LOGGER.info(LOG_PREFIX + "Refreshing " + dueConfigs.size() + " GlobalYAMLProperties configurations...");
+        ConfigRefreshEngine.RefreshSummary summary = ConfigRefreshEngine.fromConfiguration(configuration).refresh(dueConfigs);
+        LOGGER.info(LOG_PREFIX + "Refresh completed (" + summary + ").");
     }
 
+    /**
+     * The task only ticks; {@link RefreshScheduler} decides which sources are due on each tick.
+     */
     @Override
     public long getRecurrencePeriod() {
-        return MIN * GlobalYAMLPropertiesConfiguration.get().getRefreshInterval();  // This will run the task every hour. Adjust as needed.
+        return MIN;
     }
 }
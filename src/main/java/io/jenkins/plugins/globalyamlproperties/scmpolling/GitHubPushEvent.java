@@ -0,0 +1,140 @@
+package io.jenkins.plugins.globalyamlproperties.scmpolling;
+
+import io.jenkins.plugins.globalyamlproperties.ConfigSourceSCM;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.*;
+
+/**
+ * The parts of a GitHub {@code push} event payload needed to find affected config sources.
+ */
+public final class GitHubPushEvent {
+
+    static final String SIGNATURE_PREFIX = "sha256=";
+
+    private final String owner;
+    private final String repository;
+    private final String ref;
+    private final Set<String> changedPaths;
+    private final boolean changedPathsComplete;
+
+    GitHubPushEvent(String owner, String repository, String ref, Set<String> changedPaths, boolean changedPathsComplete) {
+        this.owner = owner;
+        this.repository = repository;
+        this.ref = ref;
+        this.changedPaths = changedPaths;
+        this.changedPathsComplete = changedPathsComplete;
+    }
+
+    public static GitHubPushEvent parse(String payload) {
+        JSONObject json = JSONObject.fromObject(payload);
+        JSONObject repositoryJson = json.optJSONObject("repository");
+        if (repositoryJson == null || repositoryJson.isNullObject()) {
+            throw new IllegalArgumentException("Push event has no repository");
+        }
+        JSONObject ownerJson = repositoryJson.optJSONObject("owner");
+        String owner = null;
+        if (ownerJson != null && !ownerJson.isNullObject()) {
+            owner = ownerJson.optString("login", null);
+            if (owner == null) {
+                owner = ownerJson.optString("name", null);
+            }
+        }
+
+        Set<String> changedPaths = new HashSet<>();
+        JSONArray commits = json.optJSONArray("commits");
+        // GitHub lists at most 20 commits, and none at all for some force pushes,
+        // in both cases the changed files are not fully known
+        boolean complete = commits != null && !commits.isEmpty() && commits.size() < 20;
+        if (commits != null) {
+            for (Object commit : commits) {
+                if (commit instanceof JSONObject commitJson) {
+                    for (String key : List.of("added", "modified", "removed")) {
+                        JSONArray files = commitJson.optJSONArray(key);
+                        if (files != null) {
+                            for (Object file : files) {
+                                changedPaths.add(normalizePath(String.valueOf(file)));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return new GitHubPushEvent(owner, repositoryJson.optString("name", null), json.optString("ref", null),
+                changedPaths, complete);
+    }
+
+    public boolean affects(ConfigSourceSCM source) {
+        if (owner == null || repository == null || ref == null) {
+            return false;
+        }
+        if (!owner.equalsIgnoreCase(source.getRepositoryOwner()) || !repository.equalsIgnoreCase(source.getRepositoryName())) {
+            return false;
+        }
+        if (!refMatches(source.getRef())) {
+            return false;
+        }
+        return !changedPathsComplete || changedPaths.contains(normalizePath(source.getPath()));
+    }
+
+    private boolean refMatches(String sourceRef) {
+        if (sourceRef == null || sourceRef.isEmpty()) {
+            return false;
+        }
+        if (sourceRef.startsWith("refs/")) {
+            return sourceRef.equals(ref);
+        }
+        return ref.equals("refs/heads/" + sourceRef) || ref.equals("refs/tags/" + sourceRef);
+    }
+
+    private static String normalizePath(String path) {
+        if (path == null) {
+            return "";
+        }
+        String normalized = path.trim();
+        while (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        return normalized;
+    }
+
+    /**
+     * Verifies the {@code X-Hub-Signature-256} header against the raw request body.
+     */
+    public static boolean isSignatureValid(String secret, byte[] body, String signatureHeader) {
+        if (secret == null || secret.isEmpty() || signatureHeader == null || !signatureHeader.startsWith(SIGNATURE_PREFIX)) {
+            return false;
+        }
+        byte[] expected = sign(secret, body).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = signatureHeader.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    static String sign(String secret, byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return SIGNATURE_PREFIX + HexFormat.of().formatHex(mac.doFinal(body));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getRepository() {
+        return repository;
+    }
+
+    public String getRef() {
+        return ref;
+    }
+}
@@ -0,0 +1,155 @@
+package io.jenkins.plugins.globalyamlproperties.scmpolling;
+
+import hudson.Extension;
+import hudson.model.UnprotectedRootAction;
+import hudson.security.csrf.CrumbExclusion;
+import hudson.util.Secret;
+import io.jenkins.plugins.globalyamlproperties.Config;
+import io.jenkins.plugins.globalyamlproperties.ConfigSourceSCM;
+import io.jenkins.plugins.globalyamlproperties.GlobalYAMLPropertiesConfiguration;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jenkins.util.Timer;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.verb.POST;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Receives GitHub push events and refreshes only the configs whose file was changed by the push.
+ * The endpoint needs no Jenkins authentication, every request must carry a valid
+ * {@code X-Hub-Signature-256} for the webhook secret set on the configuration page.
+ */
+@Extension
+public class GitHubPushWebhook implements UnprotectedRootAction {
+
+    public static final String URL_NAME = "global-yaml-properties-webhook";
+
+    private static final Logger LOGGER = Logger.getLogger(GitHubPushWebhook.class.getName());
+    private static final String LOG_PREFIX = "[GlobalYAMLPropertiesWebhook] ";
+    private static final int MAX_PAYLOAD_BYTES = 25 * 1024 * 1024;
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    @POST
+    @SuppressWarnings("unused")
+    public HttpResponse doIndex(StaplerRequest2 req) throws IOException {
+        Secret secret = GlobalYAMLPropertiesConfiguration.get().getWebhookSecret();
+        if (secret == null || secret.getPlainText().isEmpty()) {
+            return HttpResponses.errorWithoutStack(403, "Webhook secret is not configured");
+        }
+
+        // Oversized requests are turned away before anything is buffered or hashed
+        if (req.getContentLengthLong() > MAX_PAYLOAD_BYTES) {
+            return HttpResponses.errorWithoutStack(413, "Payload is too large");
+        }
+        byte[] body = readBody(req);
+        if (body == null) {
+            return HttpResponses.errorWithoutStack(413, "Payload is too large");
+        }
+        if (!GitHubPushEvent.isSignatureValid(secret.getPlainText(), body, req.getHeader("X-Hub-Signature-256"))) {
+            return HttpResponses.errorWithoutStack(403, "Invalid signature");
+        }
+
+        String event = req.getHeader("X-GitHub-Event");
+        if ("ping".equals(event)) {
+            return HttpResponses.text("pong");
+        }
+        if (!"push".equals(event)) {
+            return HttpResponses.text("Ignored event " + event);
+        }
+
+        GitHubPushEvent pushEvent;
+        try {
+            pushEvent = GitHubPushEvent.parse(extractPayload(req.getContentType(), body));
+        } catch (RuntimeException e) {
+            return HttpResponses.errorWithoutStack(400, "Malformed push event: " + e.getMessage());
+        }
+
+        List<Config> affected = findAffectedConfigs(pushEvent);
+        if (!affected.isEmpty()) {
+            LOGGER.info(LOG_PREFIX + "Push to " + pushEvent.getOwner() + "/" + pushEvent.getRepository() + " "
+                    + pushEvent.getRef() + " affects " + affected.size() + " configs, refreshing");
+            Timer.get().submit(() -> refresh(affected));
+        }
+        return HttpResponses.text("Scheduled refresh of " + affected.size() + " configs");
+    }
+
+    static List<Config> findAffectedConfigs(GitHubPushEvent pushEvent) {
+        List<Config> affected = new ArrayList<>();
+        for (Config config : GlobalYAMLPropertiesConfiguration.get().getConfigs()) {
+            if (config.getConfigSource() instanceof ConfigSourceSCM configSourceSCM && pushEvent.affects(configSourceSCM)) {
+                RefreshScheduler.get().markStale(config, System.currentTimeMillis());
+                affected.add(config);
+            }
+        }
+        return affected;
+    }
+
+    private static void refresh(List<Config> configs) {
+        try {
+            ConfigRefreshEngine.RefreshSummary summary = ConfigRefreshEngine
+                    .fromConfiguration(GlobalYAMLPropertiesConfiguration.get()).refresh(configs);
+            LOGGER.info(LOG_PREFIX + "Webhook refresh completed (" + summary + ")");
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, LOG_PREFIX + "Webhook refresh failed", e);
+        }
+    }
+
+    private static byte[] readBody(StaplerRequest2 req) throws IOException {
+        try (InputStream in = req.getInputStream()) {
+            byte[] body = in.readNBytes(MAX_PAYLOAD_BYTES + 1);
+            return body.length > MAX_PAYLOAD_BYTES ? null : body;
+        }
+    }
+
+    static String extractPayload(String contentType, byte[] body) {
+        String text = new String(body, StandardCharsets.UTF_8);
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            for (String parameter : text.split("&")) {
+                if (parameter.startsWith("payload=")) {
+                    return URLDecoder.decode(parameter.substring("payload=".length()), StandardCharsets.UTF_8);
+                }
+            }
+            throw new IllegalArgumentException("Form encoded request has no payload parameter");
+        }
+        return text;
+    }
+
+    @Extension
+    public static class CrumbExclusionImpl extends CrumbExclusion {
+        @Override
+        public boolean process(HttpServletRequest req, HttpServletResponse resp, FilterChain chain) throws IOException, ServletException {
+            String pathInfo = req.getPathInfo();
+            if (pathInfo != null && (pathInfo.equals("/" + URL_NAME) || pathInfo.equals("/" + URL_NAME + "/"))) {
+                chain.doFilter(req, resp);
+                return true;
+            }
+            return false;
+        }
+    }
+}
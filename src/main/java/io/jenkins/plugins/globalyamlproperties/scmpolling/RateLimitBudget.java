@@ -0,0 +1,86 @@
+package io.jenkins.plugins.globalyamlproperties.scmpolling;
+
+import io.jenkins.plugins.globalyamlproperties.Config;
+import io.jenkins.plugins.globalyamlproperties.ConfigSourceSCM;
+import org.kohsuke.github.GHRateLimit;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Tracks the remaining GitHub API quota of every credential, as reported by the headers of the last response.
+ * When the quota of a credential runs low, scheduled polls using it are held back until the quota resets,
+ * leaving the rest for webhook and manually triggered refreshes.
+ */
+public final class RateLimitBudget {
+
+    private static final Logger LOGGER = Logger.getLogger(RateLimitBudget.class.getName());
+    private static final String LOG_PREFIX = "[GlobalYAMLPropertiesRateLimit] ";
+
+    static final double RESERVED_RATIO = 0.1;
+    // One poll of a GitHub source looks up the repository, the file's metadata and then reads the file
+    static final int REQUESTS_PER_POLL = 3;
+
+    private static final RateLimitBudget INSTANCE = new RateLimitBudget();
+
+    private final Map<String, Quota> quotas = new ConcurrentHashMap<>();
+
+    RateLimitBudget() {
+    }
+
+    public static RateLimitBudget get() {
+        return INSTANCE;
+    }
+
+    public void record(String credentialsId, GHRateLimit rateLimit) {
+        if (credentialsId == null || rateLimit == null) {
+            return;
+        }
+        GHRateLimit.Record core = rateLimit.getCore();
+        if (core == null || core.getLimit() <= 0) {
+            return;
+        }
+        record(credentialsId, core.getRemaining(), core.getLimit(), core.getResetDate().getTime());
+    }
+
+    void record(String credentialsId, int remaining, int limit, long resetAt) {
+        quotas.put(credentialsId, new Quota(remaining, limit, resetAt));
+    }
+
+    /**
+     * Splits scheduled polls into those that may run now and those deferred until their credential's quota resets.
+     * Every admitted poll is counted against the known remaining quota with {@link #REQUESTS_PER_POLL} requests.
+     */
+    public List<Config> admit(Collection<Config> configs, long now) {
+        List<Config> admitted = new ArrayList<>();
+        Map<String, Integer> estimates = new HashMap<>();
+        for (Config config : configs) {
+            if (!(config.getConfigSource() instanceof ConfigSourceSCM source) || source.getCredentialsId() == null) {
+                admitted.add(config);
+                continue;
+            }
+            Quota quota = quotas.get(source.getCredentialsId());
+            if (quota == null || now >= quota.resetAt) {
+                admitted.add(config);
+                continue;
+            }
+            int remaining = estimates.getOrDefault(source.getCredentialsId(), quota.remaining);
+            if (remaining - REQUESTS_PER_POLL >= quota.reserve()) {
+                estimates.put(source.getCredentialsId(), remaining - REQUESTS_PER_POLL);
+                admitted.add(config);
+            } else {
+                RefreshScheduler.get().deferUntil(config, quota.resetAt);
+                LOGGER.fine(LOG_PREFIX + "Deferring " + config.getName() + ", credentials " + source.getCredentialsId()
+                        + " have " + remaining + " of " + quota.limit + " requests left");
+            }
+        }
+        return admitted;
+    }
+
+    private record Quota(int remaining, int limit, long resetAt) {
+        int reserve() {
+            return (int) Math.ceil(limit * RESERVED_RATIO);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package io.jenkins.plugins.globalyamlproperties.scmpolling;
+
+import io.jenkins.plugins.globalyamlproperties.Config;
+import io.jenkins.plugins.globalyamlproperties.GlobalYAMLPropertiesConfiguration;
+import io.jenkins.plugins.globalyamlproperties.RemoteConfigSource;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Decides when each remote source is polled next. Every source has its own interval
+ * (falling back to the global one), fetch times are spread with jitter, and sources that keep
+ * coming back unchanged are polled less and less often, up to {@link #MAX_BACKOFF_FACTOR} times their interval.
+ * A change or a webhook notification brings a source back to its base interval.
+ * <p>
+ * Every source also has a circuit breaker: after {@link #FAILURES_BEFORE_OPEN} failed refreshes in a row the source
+ * is not polled again before a backoff has passed that starts at the source's interval and doubles with every further
+ * failure, up to {@link #FAILURE_BACKOFF_MAX}, so a broken repository is retried less often than a healthy one is polled.
+ */
+public final class RefreshScheduler {
+
+    static final double JITTER = 0.1;
+    static final int UNCHANGED_POLLS_BEFORE_BACKOFF = 3;
+    static final int MAX_BACKOFF_FACTOR = 8;
+    static final int FAILURES_BEFORE_OPEN = 3;
+    static final long FAILURE_BACKOFF_MAX = TimeUnit.HOURS.toMillis(6);
+
+    private static final Logger LOGGER = Logger.getLogger(RefreshScheduler.class.getName());
+    private static final String LOG_PREFIX = "[GlobalYAMLPropertiesScheduler] ";
+
+    private static final RefreshScheduler INSTANCE = new RefreshScheduler();
+
+    private final Map<String, SourceState> states = new ConcurrentHashMap<>();
+
+    RefreshScheduler() {
+    }
+
+    public static RefreshScheduler get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return remote configs whose next poll time has come
+     */
+    public List<Config> dueConfigs(Collection<Config> configs, long now) {
+        List<Config> due = new ArrayList<>();
+        Set<String> known = new HashSet<>();
+        for (Config config : configs) {
+            if (!(config.getConfigSource() instanceof RemoteConfigSource source)) {
+                continue;
+            }
+            known.add(source.getSourceKey());
+            SourceState state = states.computeIfAbsent(source.getSourceKey(), k -> {
+                // Spread the first polls of already loaded sources over one interval instead of firing all at once
+                long firstDue = source.getYamlConfig() == null
+                        ? now : now + (long) (ThreadLocalRandom.current().nextDouble() * baseInterval(source));
+                return new SourceState(firstDue);
+            });
+            if (state.nextDue <= now) {
+                due.add(config);
+            }
+        }
+        states.keySet().retainAll(known);
+        return due;
+    }
+
+    public void recordResult(Config config, boolean changed, long now) {
+        if (!(config.getConfigSource() instanceof RemoteConfigSource source)) {
+            return;
+        }
+        SourceState state = states.computeIfAbsent(source.getSourceKey(), k -> new SourceState(now));
+        synchronized (state) {
+            if (state.failures >= FAILURES_BEFORE_OPEN) {
+                LOGGER.info(LOG_PREFIX + "Refresh of " + config.getName() + " succeeded again, closing circuit breaker");
+            }
+            state.failures = 0;
+            state.unchangedPolls = changed ? 0 : state.unchangedPolls + 1;
+            state.nextDue = now + jittered(currentInterval(source, state.unchangedPolls));
+        }
+    }
+
+    /**
+     * Counts a failed refresh. Once the circuit breaker of the source is open, the next attempt waits
+     * for a backoff that doubles with every further failure.
+     */
+    public void recordFailure(Config config, long now) {
+        if (!(config.getConfigSource() instanceof RemoteConfigSource source)) {
+            return;
+        }
+        SourceState state = states.computeIfAbsent(source.getSourceKey(), k -> new SourceState(now));
+        synchronized (state) {
+            state.failures++;
+            if (state.failures < FAILURES_BEFORE_OPEN) {
+                state.nextDue = now + jittered(baseInterval(source));
+                return;
+            }
+            long backoff = failureBackoff(baseInterval(source), state.failures);
+            state.nextDue = now + jittered(backoff);
+            LOGGER.warning(LOG_PREFIX + "Refresh of " + config.getName() + " failed " + state.failures
+                    + " times in a row, next attempt in " + TimeUnit.MILLISECONDS.toMinutes(backoff) + " minutes");
+        }
+    }
+
+    /**
+     * Postpones the next poll of a source without counting it as a failure, e.g. while its API quota is exhausted.
+     */
+    public void deferUntil(Config config, long time) {
+        if (config.getConfigSource() instanceof RemoteConfigSource source) {
+            SourceState state = states.computeIfAbsent(source.getSourceKey(), k -> new SourceState(time));
+            synchronized (state) {
+                state.nextDue = Math.max(state.nextDue, time);
+            }
+        }
+    }
+
+    static long failureBackoff(long base, int failures) {
+        int doublings = Math.max(0, Math.min(failures - FAILURES_BEFORE_OPEN, 30));
+        if (base >= FAILURE_BACKOFF_MAX >> doublings) {
+            // Never shorter than the normal interval, even for sources polled less often than the cap
+            return Math.max(base, FAILURE_BACKOFF_MAX);
+        }
+        return base << doublings;
+    }
+
+    /**
+     * Makes a source due right away and resets its backoff, e.g. after a push notification.
+     */
+    public void markStale(Config config, long now) {
+        if (config.getConfigSource() instanceof RemoteConfigSource source) {
+            SourceState state = states.computeIfAbsent(source.getSourceKey(), k -> new SourceState(now));
+            synchronized (state) {
+                state.unchangedPolls = 0;
+                state.nextDue = now;
+            }
+        }
+    }
+
+    static long baseInterval(RemoteConfigSource source) {
+        int minutes = source.getRefreshInterval() > 0
+                ? source.getRefreshInterval() : GlobalYAMLPropertiesConfiguration.get().getRefreshInterval();
+        return TimeUnit.MINUTES.toMillis(Math.max(1, minutes));
+    }
+
+    static long currentInterval(RemoteConfigSource source, int unchangedPolls) {
+        int doublings = Math.max(0, unchangedPolls - UNCHANGED_POLLS_BEFORE_BACKOFF + 1);
+        long factor = Math.min(MAX_BACKOFF_FACTOR, 1L << Math.min(doublings, 30));
+        return baseInterval(source) * factor;
+    }
+
+    static long jittered(long interval) {
+        double offset = (ThreadLocalRandom.current().nextDouble() * 2 - 1) * JITTER;
+        return Math.max(1, (long) (interval * (1 + offset)));
+    }
+
+    private static final class SourceState {
+        private volatile long nextDue;
+        private int unchangedPolls;
+        private int failures;
+
+        private SourceState(long nextDue) {
+            this.nextDue = nextDue;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.jenkinsci.plugins.workflow.steps.*;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -24,19 +25,25 @@ public class GetGlobalYAMLCategories extends Step {
         return new GlobalPropertiesStepExecution(context);
     }
 
-    private static class GlobalPropertiesStepExecution extends SynchronousStepExecution<List<String>> {
+    private static class GlobalPropertiesStepExecution extends YAMLStepExecution<List<String>> {
 
         @Serial
         private static final long serialVersionUID = 1L;
 
         protected GlobalPropertiesStepExecution(StepContext context) {
-            super(context);
+            super(context, "getGlobalYAMLCategories");
         }
 
         @Override
-        protected List<String> run() throws Exception {
+        protected List<String> prepared() {
+            // Served from the registry snapshot, never needs the executor
+            return compute();
+        }
+
+        @Override
+        protected List<String> compute() {
             GlobalYAMLPropertiesConfiguration globalPropertiesConfig = GlobalYAMLPropertiesConfiguration.get();
-            return globalPropertiesConfig.getCategories();
+            return new ArrayList<>(globalPropertiesConfig.getCategories());
         }
     }
 
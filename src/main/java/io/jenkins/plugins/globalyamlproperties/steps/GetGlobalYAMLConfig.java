@@ -2,8 +2,13 @@ package io.jenkins.plugins.globalyamlproperties.steps;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
+import hudson.model.Run;
 import hudson.model.TaskListener;
+import io.jenkins.plugins.globalyamlproperties.Config;
+import io.jenkins.plugins.globalyamlproperties.ConfigDependencyIndex;
+import io.jenkins.plugins.globalyamlproperties.ConfigUsage;
 import io.jenkins.plugins.globalyamlproperties.GlobalYAMLPropertiesConfiguration;
+import io.jenkins.plugins.globalyamlproperties.GlobalYAMLPropertiesConfigurationException;
 import io.jenkins.plugins.globalyamlproperties.Utils;
 import org.jenkinsci.Symbol;
 import org.jenkinsci.plugins.workflow.steps.*;
@@ -11,7 +16,6 @@ import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
 import java.io.*;
-import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
@@ -38,35 +42,54 @@ public class GetGlobalYAMLConfig extends Step {
         return new GlobalPropertiesStepExecution(context, configName);
     }
 
-    private static class GlobalPropertiesStepExecution extends SynchronousStepExecution<Map<String, Object>> {
+    private static class GlobalPropertiesStepExecution extends YAMLStepExecution<Map<String, Object>> {
 
         private final String configName;
         @Serial
         private static final long serialVersionUID = 1L;
 
         protected GlobalPropertiesStepExecution(StepContext context, String configName) {
-            super(context);
+            super(context, "getGlobalYAMLProperties");
             this.configName = configName;
         }
 
-        @Override
-        protected Map<String, Object> run() throws Exception {
-            StepContext context = getContext();
-            PrintStream logger = context.get(TaskListener.class).getLogger();
+        private Config resolveConfig() throws GlobalYAMLPropertiesConfigurationException {
             GlobalYAMLPropertiesConfiguration globalPropertiesConfig = GlobalYAMLPropertiesConfiguration.get();
-            Map<String, Object> globalPropertiesConfigMap;
+            if (configName != null && !configName.isEmpty()) {
+                return globalPropertiesConfig.getConfigByName(configName);
+            }
+            Config config = globalPropertiesConfig.getDefaultConfig();
+            if (config == null) {
+                throw new GlobalYAMLPropertiesConfigurationException("No global configuration defined, there is no default config");
+            }
+            return config;
+        }
+
+        @Override
+        protected Map<String, Object> prepared() throws Exception {
+            PrintStream logger = getContext().get(TaskListener.class).getLogger();
+            Config config = resolveConfig();
             if (configName != null && !configName.isEmpty()) {
                 logger.println("[GetGlobalProperties] Obtaining configuration for " + configName);
-                globalPropertiesConfigMap = globalPropertiesConfig.getConfigByName(configName).getConfigMap();
             } else {
-                logger.println("[GetGlobalProperties] Obtaining default configuration (" + globalPropertiesConfig.getDefaultConfig().getName() + ")");
-                globalPropertiesConfigMap = globalPropertiesConfig.getDefaultConfig().getConfigMap();
+                logger.println("[GetGlobalProperties] Obtaining default configuration (" + config.getName() + ")");
             }
+            return config.isParsed() ? toResult(config) : null;
+        }
+
+        @Override
+        protected Map<String, Object> compute() throws Exception {
+            return toResult(resolveConfig());
+        }
 
+        private Map<String, Object> toResult(Config config) throws Exception {
+            Map<String, Object> globalPropertiesConfigMap = config.getConfigMap();
             if (globalPropertiesConfigMap.isEmpty()) {
-                logger.println("[GetGlobalProperties] Warning: Configuration is empty");
+                getContext().get(TaskListener.class).getLogger().println("[GetGlobalProperties] Warning: Configuration is empty");
             }
-            return Utils.deepCopyMap(globalPropertiesConfigMap);
+            ConfigUsage.get().recordRead(config.getName());
+            return Utils.copyOnWriteView(globalPropertiesConfigMap,
+                    ConfigDependencyIndex.get().track(getContext().get(Run.class), config.getName()));
         }
     }
 
@@ -92,7 +115,7 @@ public class GetGlobalYAMLConfig extends Step {
 
         @Override
         public Set<? extends Class<?>> getRequiredContext() {
-            return Collections.singleton(TaskListener.class);
+            return Set.of(TaskListener.class, Run.class);
         }
     }
 }
@@ -10,6 +10,7 @@ import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
 import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -37,21 +38,27 @@ public class GetGlobalYAMLConfigNamesByCategory extends Step {
         return new GlobalPropertiesStepExecution(context, category);
     }
 
-    private static class GlobalPropertiesStepExecution extends SynchronousStepExecution<List<String>> {
+    private static class GlobalPropertiesStepExecution extends YAMLStepExecution<List<String>> {
         private final String category;
 
         @Serial
         private static final long serialVersionUID = 1L;
 
         protected GlobalPropertiesStepExecution(StepContext context, String category) {
-            super(context);
+            super(context, "getGlobalYAMLConfigNamesByCategory");
             this.category = category;
         }
 
         @Override
-        protected List<String> run() throws Exception {
+        protected List<String> prepared() {
+            // Served from the registry snapshot, never needs the executor
+            return compute();
+        }
+
+        @Override
+        protected List<String> compute() {
             GlobalYAMLPropertiesConfiguration globalPropertiesConfig = GlobalYAMLPropertiesConfiguration.get();
-            return globalPropertiesConfig.getConfigNamesByCategory(category);
+            return new ArrayList<>(globalPropertiesConfig.getConfigNamesByCategory(category));
         }
     }
 
@@ -5,18 +5,13 @@ import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
 import hudson.model.TaskListener;
-import io.jenkins.plugins.globalyamlproperties.MultibranchYAMLJobProperty;
-import io.jenkins.plugins.globalyamlproperties.PipelineYAMLJobProperty;
+import io.jenkins.plugins.globalyamlproperties.LocalYAMLResolver;
 import io.jenkins.plugins.globalyamlproperties.Utils;
 import org.jenkinsci.Symbol;
-import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.jenkinsci.plugins.workflow.steps.*;
 import org.kohsuke.stapler.DataBoundConstructor;
-import hudson.PluginWrapper;
-import jenkins.model.Jenkins;
 
 import java.io.Serial;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -31,43 +26,25 @@ public class GetLocalYAMLConfig extends Step {
         return new GlobalPropertiesStepExecution(context);
     }
 
-    private static class GlobalPropertiesStepExecution extends SynchronousStepExecution<Map<String, Object>> {
+    private static class GlobalPropertiesStepExecution extends YAMLStepExecution<Map<String, Object>> {
         @Serial
         private static final long serialVersionUID = 1L;
 
         protected GlobalPropertiesStepExecution(StepContext context) {
-            super(context);
+            super(context, "getLocalYAMLProperties");
         }
 
-        protected boolean isMultibranchPipeline(Job job) {
-            try {
-                PluginWrapper plugin = Jenkins.get().pluginManager.getPlugin("workflow-multibranch");
-                return plugin != null && (job.getParent() instanceof org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject);
-            } catch (Exception e) {
-                return false;
-            }
+        @Override
+        protected Map<String, Object> prepared() throws Exception {
+            Job<?, ?> job = getContext().get(Run.class).getParent();
+            Map<String, Object> resolved = LocalYAMLResolver.get().getIfPresent(job);
+            return resolved == null ? null : Utils.copyOnWriteView(resolved);
         }
 
         @Override
-        protected Map<String, Object> run() throws Exception {
-            StepContext context = getContext();
-            Job job = context.get(Run.class).getParent();
-
-            if (isMultibranchPipeline(job)) {
-                org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject multibranchProject = (org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject) job.getParent();
-                MultibranchYAMLJobProperty localYamlConfiguration = multibranchProject.getProperties().get(MultibranchYAMLJobProperty.class);
-                if (localYamlConfiguration == null) {
-                    return new HashMap<>();
-                }
-                return Utils.deepCopyMap(localYamlConfiguration.getParsedConfig());
-            } else {
-                WorkflowJob pipelineJob = (WorkflowJob) job;
-                PipelineYAMLJobProperty localYamlConfiguration = pipelineJob.getProperty(PipelineYAMLJobProperty.class);
-                if (localYamlConfiguration == null) {
-                    return new HashMap<>();
-                }
-                return Utils.deepCopyMap(localYamlConfiguration.getParsedConfig());
-            }
+        protected Map<String, Object> compute() throws Exception {
+            Job<?, ?> job = getContext().get(Run.class).getParent();
+            return Utils.copyOnWriteView(LocalYAMLResolver.get().resolve(job));
         }
     }
 
@@ -0,0 +1,122 @@
+package io.jenkins.plugins.globalyamlproperties.steps;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import io.jenkins.plugins.globalyamlproperties.Config;
+import io.jenkins.plugins.globalyamlproperties.ConfigDependencyIndex;
+import io.jenkins.plugins.globalyamlproperties.ConfigUsage;
+import io.jenkins.plugins.globalyamlproperties.GlobalYAMLPropertiesConfiguration;
+import io.jenkins.plugins.globalyamlproperties.MergedYAMLConfigCache;
+import io.jenkins.plugins.globalyamlproperties.Utils;
+import org.jenkinsci.Symbol;
+import org.jenkinsci.plugins.workflow.steps.*;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import java.io.Serial;
+import java.util.Map;
+import java.util.Set;
+
+public class GetMergedYAMLConfig extends Step {
+    private String configName = "";
+
+    @DataBoundConstructor
+    public GetMergedYAMLConfig(String configName) {
+        if (configName != null) {
+            this.configName = configName;
+        }
+    }
+
+    @DataBoundSetter
+    public void setConfigName(String configName) {
+        this.configName = configName;
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new MergedPropertiesStepExecution(context, configName);
+    }
+
+    private static class MergedPropertiesStepExecution extends YAMLStepExecution<Map<String, Object>> {
+
+        private final String configName;
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        protected MergedPropertiesStepExecution(StepContext context, String configName) {
+            super(context, "getMergedYAMLProperties");
+            this.configName = configName;
+        }
+
+        private Config resolveConfig() throws Exception {
+            GlobalYAMLPropertiesConfiguration globalPropertiesConfig = GlobalYAMLPropertiesConfiguration.get();
+            if (configName != null && !configName.isEmpty()) {
+                return globalPropertiesConfig.getConfigByName(configName);
+            }
+            return globalPropertiesConfig.getDefaultConfig();
+        }
+
+        @Override
+        protected Map<String, Object> prepared() throws Exception {
+            Config config = resolveConfig();
+            getContext().get(TaskListener.class).getLogger().println("[GetMergedProperties] Merging "
+                    + (config == null ? "no global configuration" : "global configuration " + config.getName())
+                    + " with project configuration");
+            if (config != null && !config.isParsed()) {
+                return null;
+            }
+            Job<?, ?> job = getContext().get(Run.class).getParent();
+            Map<String, Object> merged = MergedYAMLConfigCache.get().getIfPresent(job, config);
+            return merged == null ? null : toResult(merged, config);
+        }
+
+        @Override
+        protected Map<String, Object> compute() throws Exception {
+            Job<?, ?> job = getContext().get(Run.class).getParent();
+            Config config = resolveConfig();
+            return toResult(MergedYAMLConfigCache.get().resolve(job, config), config);
+        }
+
+        // Reads are attributed to the global layer; a value overridden locally is indexed all the same
+        private Map<String, Object> toResult(Map<String, Object> merged, Config config) throws Exception {
+            if (config == null) {
+                return Utils.copyOnWriteView(merged);
+            }
+            ConfigUsage.get().recordRead(config.getName());
+            return Utils.copyOnWriteView(merged, ConfigDependencyIndex.get().track(getContext().get(Run.class), config.getName()));
+        }
+    }
+
+    @Symbol("getMergedYAMLProperties")
+    @Extension
+    public static final class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public String getFunctionName() {
+            return "getMergedYAMLProperties";
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Get Global YAML Properties merged with project's YAML configuration";
+        }
+
+        @Override
+        public boolean takesImplicitBlockArgument() {
+            return false;
+        }
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Set.of(TaskListener.class, Run.class);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package io.jenkins.plugins.globalyamlproperties.steps;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import io.jenkins.plugins.globalyamlproperties.Config;
+import io.jenkins.plugins.globalyamlproperties.ConfigDependencyIndex;
+import io.jenkins.plugins.globalyamlproperties.ConfigResponseCache;
+import io.jenkins.plugins.globalyamlproperties.ConfigUsage;
+import io.jenkins.plugins.globalyamlproperties.GlobalYAMLMetrics;
+import io.jenkins.plugins.globalyamlproperties.GlobalYAMLPropertiesConfiguration;
+import io.jenkins.plugins.globalyamlproperties.YAMLParseCache;
+import jenkins.MasterToSlaveFileCallable;
+import org.jenkinsci.Symbol;
+import org.jenkinsci.plugins.workflow.steps.*;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes a global config, or a value within it, to a workspace file without passing the tree through the pipeline.
+ * The agent reports the SHA-256 of the file it already has, the content is only sent when it differs.
+ */
+public class WriteGlobalYAMLConfig extends Step {
+    private static final String FUNCTION_NAME = "writeGlobalYAMLProperties";
+
+    private final String file;
+    private String configName = "";
+    private String path = "";
+    private String format = "";
+
+    @DataBoundConstructor
+    public WriteGlobalYAMLConfig(String file) {
+        this.file = file;
+    }
+
+    @DataBoundSetter
+    public void setConfigName(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * @param path value to write instead of the whole config, e.g. {@code servers[0].env}
+     */
+    @DataBoundSetter
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    /**
+     * @param format {@code yaml} or {@code json}, by default derived from the file extension
+     */
+    @DataBoundSetter
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new WritePropertiesStepExecution(context, this);
+    }
+
+    /**
+     * Blocks on the agent while hashing and copying the file, so it runs on its own thread rather than on the
+     * shared {@link YAMLStepExecution} executor. A write interrupted by a restart fails instead of running again.
+     */
+    private static class WritePropertiesStepExecution extends SynchronousNonBlockingStepExecution<String> {
+
+        private static final Pattern PATH_ELEMENT = Pattern.compile("([^.\\[\\]]+)|\\[(\\d+)]");
+
+        private final String file;
+        private final String configName;
+        private final String path;
+        private final String format;
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        protected WritePropertiesStepExecution(StepContext context, WriteGlobalYAMLConfig step) {
+            super(context);
+            this.file = step.file;
+            this.configName = step.configName;
+            this.path = step.path == null ? "" : step.path;
+            this.format = step.format;
+        }
+
+        @Override
+        protected String run() throws Exception {
+            long started = System.nanoTime();
+            GlobalYAMLMetrics.get().counter(GlobalYAMLMetrics.STEP_PREFIX + FUNCTION_NAME + ".calls").increment();
+            String contentHash = write();
+            GlobalYAMLMetrics.get().recordSince(GlobalYAMLMetrics.STEP_PREFIX + FUNCTION_NAME + ".latency", started);
+            return contentHash;
+        }
+
+        private String write() throws Exception {
+            PrintStream logger = getContext().get(TaskListener.class).getLogger();
+            FilePath workspace = getContext().get(FilePath.class);
+            if (file == null || file.isEmpty()) {
+                throw new AbortException("[WriteGlobalProperties] No file specified");
+            }
+            GlobalYAMLPropertiesConfiguration globalPropertiesConfig = GlobalYAMLPropertiesConfiguration.get();
+            Config config = configName != null && !configName.isEmpty()
+                    ? globalPropertiesConfig.getConfigByName(configName) : globalPropertiesConfig.getDefaultConfig();
+            if (config == null) {
+                throw new AbortException("[WriteGlobalProperties] No global configuration to write");
+            }
+            ConfigUsage.get().recordRead(config.getName());
+            ConfigDependencyIndex.Tracker tracker = ConfigDependencyIndex.get().track(getContext().get(Run.class), config.getName());
+            if (tracker != null) {
+                tracker.record(path);
+            }
+
+            ConfigResponseCache.Format fileFormat = resolveFormat();
+            String content;
+            String contentHash;
+            if (path.isEmpty() && fileFormat == ConfigResponseCache.Format.YAML && config.getContentHash() != null) {
+                // The source text as is, its hash is already known
+                contentHash = config.getContentHash();
+                content = config.getYamlConfig();
+            } else {
+                content = ConfigResponseCache.serialize(resolvePath(config.getConfigMap(), config.getName()), fileFormat);
+                contentHash = YAMLParseCache.contentHash(content);
+            }
+
+            FilePath target = workspace.child(file);
+            if (contentHash.equals(target.act(new Sha256()))) {
+                logger.println("[WriteGlobalProperties] " + file + " already holds " + config.getName() + ", skipping transfer");
+                return contentHash;
+            }
+            logger.println("[WriteGlobalProperties] Writing " + config.getName() + (path.isEmpty() ? "" : " (" + path + ")") + " to " + file);
+            target.copyFrom(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+            return contentHash;
+        }
+
+        private ConfigResponseCache.Format resolveFormat() throws AbortException {
+            String name = format == null || format.isEmpty()
+                    ? (file.toLowerCase(Locale.ENGLISH).endsWith(".json") ? "json" : "yaml") : format;
+            try {
+                return ConfigResponseCache.Format.valueOf(name.toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                throw new AbortException("[WriteGlobalProperties] Unsupported format " + format + ", use yaml or json");
+            }
+        }
+
+        private Object resolvePath(Map<String, Object> tree, String name) throws AbortException {
+            Object node = tree;
+            Matcher matcher = PATH_ELEMENT.matcher(path);
+            while (matcher.find()) {
+                if (matcher.group(1) != null && node instanceof Map<?, ?> map && map.containsKey(matcher.group(1))) {
+                    node = map.get(matcher.group(1));
+                } else if (matcher.group(2) != null && node instanceof List<?> list && Integer.parseInt(matcher.group(2)) < list.size()) {
+                    node = list.get(Integer.parseInt(matcher.group(2)));
+                } else {
+                    throw new AbortException("[WriteGlobalProperties] Path " + path + " not found in " + name);
+                }
+            }
+            return node;
+        }
+    }
+
+    /**
+     * SHA-256 of the file on the agent, {@code null} if it does not exist.
+     */
+    private static final class Sha256 extends MasterToSlaveFileCallable<String> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String invoke(File f, VirtualChannel channel) throws IOException {
+            if (!f.isFile()) {
+                return null;
+            }
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException("SHA-256 is not available", e);
+            }
+            try (InputStream in = new DigestInputStream(Files.newInputStream(f.toPath()), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+
+    @Symbol(FUNCTION_NAME)
+    @Extension
+    public static final class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public String getFunctionName() {
+            return FUNCTION_NAME;
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Write Global YAML Properties to a workspace file";
+        }
+
+        @Override
+        public boolean takesImplicitBlockArgument() {
+            return false;
+        }
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Set.of(TaskListener.class, FilePath.class, Run.class);
+        }
+    }
+}
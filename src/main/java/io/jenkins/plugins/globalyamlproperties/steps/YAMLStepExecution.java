@@ -0,0 +1,98 @@
+package io.jenkins.plugins.globalyamlproperties.steps;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkins.plugins.globalyamlproperties.GlobalYAMLMetrics;
+import jenkins.util.SystemProperties;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+
+import java.io.Serial;
+import java.util.concurrent.*;
+
+/**
+ * Base of the YAML property step executions. A step whose result is already prepared, i.e. the config is parsed,
+ * completes within {@link #start()}. Anything that still needs parsing or loading runs on a small dedicated
+ * executor, so neither the CPS VM thread nor the build waits on a large document.
+ */
+abstract class YAMLStepExecution<T> extends StepExecution {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    static final int THREADS = Math.max(1, SystemProperties.getInteger(YAMLStepExecution.class.getName() + ".threads", 4));
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    private final String functionName;
+    private transient volatile Future<?> task;
+    private transient long startedAt;
+
+    YAMLStepExecution(StepContext context, String functionName) {
+        super(context);
+        this.functionName = functionName;
+    }
+
+    private static ExecutorService createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamingThreadFactory(new DaemonThreadFactory(), "GlobalYAMLPropertiesStep"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @return the result if it is available without parsing or loading anything, otherwise {@code null}
+     */
+    protected abstract T prepared() throws Exception;
+
+    /**
+     * Produces the result when {@link #prepared()} could not, runs on the step executor.
+     */
+    protected abstract T compute() throws Exception;
+
+    @Override
+    public boolean start() throws Exception {
+        startedAt = System.nanoTime();
+        GlobalYAMLMetrics.get().counter(GlobalYAMLMetrics.STEP_PREFIX + functionName + ".calls").increment();
+        T result = prepared();
+        if (result != null) {
+            complete(result);
+            return true;
+        }
+        submit();
+        return false;
+    }
+
+    private void submit() {
+        task = EXECUTOR.submit(() -> {
+            try {
+                complete(compute());
+            } catch (Throwable t) {
+                getContext().onFailure(t);
+            }
+        });
+    }
+
+    private void complete(T result) {
+        if (startedAt != 0) {
+            GlobalYAMLMetrics.get().recordSince(GlobalYAMLMetrics.STEP_PREFIX + functionName + ".latency", startedAt);
+        }
+        getContext().onSuccess(result);
+    }
+
+    @Override
+    public void stop(@NonNull Throwable cause) throws Exception {
+        Future<?> current = task;
+        if (current != null) {
+            current.cancel(true);
+        }
+        getContext().onFailure(cause);
+    }
+
+    @Override
+    public void onResume() {
+        // The result was lost with the restart, the lookup has no side effects and simply runs again
+        submit();
+    }
+}
@@ -0,0 +1,28 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+/**
+ * Generates YAML documents of a given size for benchmarks, shaped like typical configs:
+ * sections of scalar keys with a nested list here and there.
+ */
+final class BenchmarkYAML {
+
+    private BenchmarkYAML() {
+    }
+
+    static String generate(int bytes) {
+        StringBuilder yaml = new StringBuilder(bytes + 256);
+        int section = 0;
+        while (yaml.length() < bytes) {
+            yaml.append("section").append(section).append(":\n");
+            for (int key = 0; key < 50 && yaml.length() < bytes; key++) {
+                yaml.append("  key").append(key).append(": \"value ").append(section).append('-').append(key).append("\"\n");
+            }
+            yaml.append("  items:\n");
+            for (int item = 0; item < 5; item++) {
+                yaml.append("    - name: item").append(item).append("\n      enabled: ").append(item % 2 == 0).append('\n');
+            }
+            section++;
+        }
+        return yaml.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import hudson.util.FormValidation;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Parsing, validation and copying of a single config, from 1 KB to 10 MB of YAML.
+ */
+@JmhBenchmark
+public class ConfigParsingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class DocumentState {
+
+        @Param({"1024", "102400", "1048576", "10485760"})
+        public int size;
+
+        String yaml;
+        byte[] bytes;
+        Config config;
+        Map<String, Object> parsed;
+
+        @Setup
+        public void setup() {
+            yaml = BenchmarkYAML.generate(size);
+            bytes = yaml.getBytes(StandardCharsets.UTF_8);
+            config = new Config("benchmark", "benchmark", new ConfigSourceManual(yaml));
+            parsed = config.getConfigMap();
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> parseConfiguration(DocumentState state) {
+        // Measure an actual parse, not a hit in the shared parse cache
+        YAMLParseCache.clear();
+        state.config.parseConfiguration();
+        return state.config.getConfigMap();
+    }
+
+    @Benchmark
+    public Map<String, Object> parseConfigurationCached(DocumentState state) {
+        state.config.parseConfiguration();
+        return state.config.getConfigMap();
+    }
+
+    @Benchmark
+    public FormValidation validateYamlConfig(DocumentState state) {
+        YAMLParseCache.clear();
+        ConfigValidator.clearCache();
+        return ConfigValidator.validateYamlConfig(state.yaml);
+    }
+
+    @Benchmark
+    public FormValidation validateYamlConfigCached(DocumentState state) {
+        return ConfigValidator.validateYamlConfig(state.yaml);
+    }
+
+    @Benchmark
+    public Map<String, Object> deepCopyMap(DocumentState state) throws IOException, ClassNotFoundException {
+        return Utils.deepCopyMap(state.parsed);
+    }
+
+    @Benchmark
+    public Map<String, Object> copyOnWriteView(DocumentState state) {
+        return Utils.copyOnWriteView(state.parsed);
+    }
+
+    @Benchmark
+    public String readInputStream(DocumentState state) throws IOException {
+        return Utils.readInputStream(new ByteArrayInputStream(state.bytes));
+    }
+}
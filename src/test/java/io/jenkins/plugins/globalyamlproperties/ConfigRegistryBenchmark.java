@@ -0,0 +1,60 @@
+package io.jenkins.plugins.globalyamlproperties;
+
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lookups behind {@link GlobalYAMLPropertiesConfiguration}, with 10 to 10,000 configs spread over 10 categories.
+ */
+@JmhBenchmark
+public class ConfigRegistryBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class RegistryState {
+
+        @Param({"10", "100", "1000", "10000"})
+        public int configCount;
+
+        List<Config> configs;
+        ConfigRegistry registry;
+        String lastName;
+
+        @Setup
+        public void setup() {
+            configs = new ArrayList<>(configCount);
+            for (int i = 0; i < configCount; i++) {
+                configs.add(new Config("config" + i, "category" + (i % 10), new ConfigSourceManual("index: " + i)));
+            }
+            registry = new ConfigRegistry(configs);
+            lastName = "config" + (configCount - 1);
+        }
+    }
+
+    @Benchmark
+    public Config getConfigByName(RegistryState state) {
+        return state.registry.getConfigByName(state.lastName);
+    }
+
+    @Benchmark
+    public List<Config> getConfigsByCategory(RegistryState state) {
+        return state.registry.getConfigsByCategory("category5");
+    }
+
+    @Benchmark
+    public List<String> getConfigNamesByCategory(RegistryState state) {
+        return state.registry.getConfigNamesByCategory("category5");
+    }
+
+    @Benchmark
+    public List<String> getCategories(RegistryState state) {
+        return state.registry.getCategories();
+    }
+
+    @Benchmark
+    public ConfigRegistry rebuildRegistry(RegistryState state) {
+        return new ConfigRegistry(state.configs);
+    }
+}
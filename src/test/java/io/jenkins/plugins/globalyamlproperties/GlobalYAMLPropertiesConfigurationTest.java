@@ -1,6 +1,15 @@
 package io.jenkins.plugins.globalyamlproperties;
 
+import com.cloudbees.hudson.plugins.folder.Folder;
+import hudson.model.Descriptor;
 import hudson.model.Label;
+import hudson.model.Result;
+import hudson.util.FormValidation;
+import io.jenkins.plugins.globalyamlproperties.scmpolling.ConfigRefreshEngine;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
+import org.eclipse.jgit.api.Git;
+import org.htmlunit.WebResponse;
 import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
@@ -8,19 +17,35 @@ import org.jenkinsci.plugins.workflow.multibranch.WorkflowBranchProjectFactory;
 import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
 import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.InterruptedIOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @WithJenkins
@@ -82,6 +107,19 @@ class GlobalYAMLPropertiesConfigurationTest {
         assertTrue(globalConfiguration.getConfigsByCategory(CATEGORY).stream().allMatch(config -> config.getCategory().equals(CATEGORY)));
     }
 
+    @Test
+    void testRegistryIsRebuiltOnSetConfigs() throws Exception {
+        GlobalYAMLPropertiesConfiguration globalConfiguration = createMultiCategorizedTestInstances();
+        assertEquals(NAME + "1", globalConfiguration.getConfigByName(NAME + "1").getName());
+        assertEquals(List.of(NAME + "2"), globalConfiguration.getConfigNamesByCategory(CATEGORY + "2"));
+        assertEquals(3, globalConfiguration.getCategories().size());
+
+        GlobalYAMLPropertiesConfiguration replacedConfiguration = createTestInstance();
+        assertEquals(List.of(CATEGORY), replacedConfiguration.getCategories());
+        assertTrue(replacedConfiguration.getConfigsByCategory(CATEGORY + "1").isEmpty());
+        assertThrows(GlobalYAMLPropertiesConfigurationException.class, () -> replacedConfiguration.getConfigByName(NAME + "1"));
+    }
+
     @Test
     void testConfigApi() throws Exception {
         GlobalYAMLPropertiesConfiguration globalConfiguration = createTestInstance();
@@ -92,6 +130,241 @@ class GlobalYAMLPropertiesConfigurationTest {
         assertEquals(CATEGORY, globalConfiguration.getConfigs().get(0).getCategory());
     }
 
+    @Test
+    void testValidationReportsPositionAndLimits() {
+        ConfigValidator.Result result = ConfigValidator.validate("key: value\nlist: [1, 2\nother: value\n");
+        assertEquals(FormValidation.Kind.ERROR, result.kind());
+        assertTrue(result.line() > 1);
+        assertTrue(result.column() > 0);
+        assertSame(result, ConfigValidator.validate("key: value\nlist: [1, 2\nother: value\n"));
+
+        StringBuilder aliasBomb = new StringBuilder("a: &a [x, x]\n");
+        for (char name = 'b'; name <= 'z'; name++) {
+            char previous = (char) (name - 1);
+            aliasBomb.append(name).append(": &").append(name).append(" [*").append(previous).append(", *").append(previous).append(", *").append(previous).append("]\n");
+        }
+        assertFalse(ConfigValidator.validate(aliasBomb.toString()).isValid());
+        assertEquals(FormValidation.Kind.OK, ConfigValidator.validate(YAML_CONFIG).kind());
+    }
+
+    @Test
+    void testRefreshPublishesStructuralDiff() throws Exception {
+        List<ConfigDiff> diffs = new ArrayList<>();
+        ConfigChangeListener.all().add(new ConfigChangeListener() {
+            @Override
+            public void onChanged(Config config, ConfigDiff diff) {
+                diffs.add(diff);
+            }
+        });
+        Config config = new Config(NAME, CATEGORY, new ConfigSourceManual("a: 1\nb:\n  c: 2\n  d: [1, 2]\n"));
+        config.refreshConfiguration();
+        assertTrue(diffs.isEmpty());
+
+        config.setConfigSource(new ConfigSourceManual("a: 1\nb:\n  c: 3\n  d: [1]\ne: new\n"));
+        config.refreshConfiguration();
+        assertEquals(1, diffs.size());
+        ConfigDiff diff = diffs.get(0);
+        assertEquals(List.of("b.c", "b.d[1]", "e"), diff.getChanges().stream().map(ConfigDiff.Change::path).toList());
+        assertEquals(ConfigDiff.Kind.MODIFIED, diff.getChanges().get(0).kind());
+        assertEquals(ConfigDiff.Kind.REMOVED, diff.getChanges().get(1).kind());
+        assertEquals(ConfigDiff.Kind.ADDED, diff.getChanges().get(2).kind());
+        assertTrue(diff.affects("b"));
+        assertFalse(diff.affects("a"));
+    }
+
+    @Test
+    void testOnlyJobsReadingChangedKeysAreTriggered() throws Exception {
+        Config config = new Config(NAME, CATEGORY, new ConfigSourceManual("a: 1\nb:\n  c: 2\n"));
+        GlobalYAMLPropertiesConfiguration.get().setConfigs(new ArrayList<>(List.of(config)));
+        WorkflowJob readsA = createTriggeredJob("reads-a", "println getGlobalYAMLProperties().a");
+        WorkflowJob readsC = createTriggeredJob("reads-c", "println getGlobalYAMLProperties().b.c");
+        jenkins.assertBuildStatusSuccess(readsA.scheduleBuild2(0));
+        jenkins.assertBuildStatusSuccess(readsC.scheduleBuild2(0));
+        assertEquals(Set.of("a"), ConfigDependencyIndex.get().getPaths(NAME, readsA.getFullName()));
+        assertEquals(Set.of("b.c"), ConfigDependencyIndex.get().getPaths(NAME, readsC.getFullName()));
+
+        config.setConfigSource(new ConfigSourceManual("a: 1\nb:\n  c: 3\n"));
+        config.refreshConfiguration();
+        config.setConfigSource(new ConfigSourceManual("a: 1\nb:\n  c: 4\n"));
+        config.refreshConfiguration();
+        assertNull(jenkins.jenkins.getQueue().getItem(readsA));
+        assertNotNull(jenkins.jenkins.getQueue().getItem(readsC));
+        assertEquals(1, jenkins.jenkins.getQueue().getItems().length);
+        jenkins.jenkins.getQueue().clear();
+    }
+
+    @Test
+    void testRefreshWorkersTriggerJobsOnSecuredInstance() throws Exception {
+        jenkins.jenkins.setSecurityRealm(jenkins.createDummySecurityRealm());
+        jenkins.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy().grant(Jenkins.ADMINISTER).everywhere().to("admin"));
+        Config config = new Config(NAME, CATEGORY, new ConfigSourceManual("a: 1\n"));
+        GlobalYAMLPropertiesConfiguration.get().setConfigs(new ArrayList<>(List.of(config)));
+        WorkflowJob readsA = createTriggeredJob("reads-a", "println getGlobalYAMLProperties().a");
+        jenkins.assertBuildStatusSuccess(readsA.scheduleBuild2(0));
+
+        // Listeners run on a refresh worker thread, which has no authentication of its own
+        config.setConfigSource(new ConfigSourceManual("a: 2\n"));
+        ConfigRefreshEngine.RefreshSummary summary = new ConfigRefreshEngine(1, 30).refresh(List.of(config));
+        assertEquals(1, summary.refreshed());
+        assertNotNull(jenkins.jenkins.getQueue().getItem(readsA));
+        jenkins.jenkins.getQueue().clear();
+    }
+
+    private WorkflowJob createTriggeredJob(String name, String script) throws Exception {
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, name);
+        job.setDefinition(new CpsFlowDefinition(script, true));
+        GlobalYAMLConfigTrigger trigger = new GlobalYAMLConfigTrigger();
+        trigger.setQuietPeriod(3600);
+        job.addTrigger(trigger);
+        return job;
+    }
+
+    @Test
+    void testConfigReadsAreCountedAfterAggregation() throws Exception {
+        createMultipleTestInstances();
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "reads-config");
+        job.setDefinition(new CpsFlowDefinition("println getGlobalYAMLProperties('" + NAME + "1').version", true));
+        jenkins.assertBuildStatusSuccess(job.scheduleBuild2(0));
+        jenkins.assertBuildStatusSuccess(job.scheduleBuild2(0));
+
+        ConfigUsage usage = ConfigUsage.get();
+        usage.aggregate(System.currentTimeMillis());
+        assertEquals(2, usage.getUsage(NAME + "1").reads());
+        assertTrue(usage.getUsage(NAME + "1").lastRead() > 0);
+        assertEquals(new ConfigUsage.Usage(0, 0), usage.getUsage(NAME + "0"));
+
+        List<ConfigUsage.Row> rows = usage.getRows(System.currentTimeMillis());
+        assertEquals(NAME + "1", rows.get(rows.size() - 1).getName());
+        assertEquals("Never", rows.get(0).getLastRead());
+    }
+
+    @Test
+    void testReadApiServesConfigWithEtag() throws Exception {
+        createTestInstance();
+        JenkinsRule.WebClient webClient = jenkins.createWebClient();
+        webClient.setThrowExceptionOnFailingStatusCode(false);
+        String url = jenkins.getURL() + "manage/globalyamlconfiguration/read?name=" + NAME;
+
+        WebResponse json = webClient.getPage(url).getWebResponse();
+        assertEquals(200, json.getStatusCode());
+        assertEquals(1.0, JSONObject.fromObject(json.getContentAsString()).getDouble("version"));
+        String etag = json.getResponseHeaderValue("ETag");
+        assertNotNull(etag);
+
+        WebResponse yaml = webClient.getPage(url + "&format=yaml").getWebResponse();
+        assertEquals(YAML_CONFIG, yaml.getContentAsString());
+        assertFalse(etag.equals(yaml.getResponseHeaderValue("ETag")));
+
+        webClient.addRequestHeader("If-None-Match", etag);
+        assertEquals(304, webClient.getPage(url).getWebResponse().getStatusCode());
+        webClient.removeRequestHeader("If-None-Match");
+
+        // Identity and gzip bodies carry distinct tags, either one revalidates
+        String identityEtag = etag.replace("-gzip\"", "\"");
+        assertEquals(ConfigurationManagementLink.gzipEtag(identityEtag), etag);
+        assertTrue(ConfigurationManagementLink.matches(identityEtag, identityEtag));
+        assertTrue(ConfigurationManagementLink.matches("W/" + etag, identityEtag));
+        assertFalse(ConfigurationManagementLink.matches(yaml.getResponseHeaderValue("ETag"), identityEtag));
+        assertEquals(404, webClient.getPage(url + "-missing").getWebResponse().getStatusCode());
+    }
+
+    @Test
+    void testWriteConfigSkipsUnchangedFile() throws Exception {
+        GlobalYAMLPropertiesConfiguration.get().setConfigs(new ArrayList<>(List.of(
+                new Config(NAME, CATEGORY, new ConfigSourceManual("servers:\n  - host: a\n  - host: b\n")))));
+        jenkins.createOnlineSlave(Label.get("my-agent"));
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "write-config");
+        String pipelineScript
+                = """
+                node('my-agent') {
+                  writeGlobalYAMLProperties(configName: 'test', file: 'conf/config.yaml')
+                  writeGlobalYAMLProperties(configName: 'test', file: 'conf/config.yaml')
+                  writeGlobalYAMLProperties(configName: 'test', file: 'host.json', path: 'servers[1]')
+                  println readFile('conf/config.yaml')
+                  println readFile('host.json')
+                }""";
+        job.setDefinition(new CpsFlowDefinition(pipelineScript, true));
+        WorkflowRun completedBuild = jenkins.assertBuildStatusSuccess(job.scheduleBuild2(0));
+        jenkins.assertLogContains("Writing test to conf/config.yaml", completedBuild);
+        jenkins.assertLogContains("conf/config.yaml already holds test, skipping transfer", completedBuild);
+        jenkins.assertLogContains("host: b", completedBuild);
+        jenkins.assertLogContains("{\"host\":\"b\"}", completedBuild);
+    }
+
+    @Test
+    void testParsedConfigIsNotPersisted() throws Exception {
+        createTestInstance();
+        String xml = GlobalYAMLPropertiesConfiguration.get().getConfigFile().asString();
+        assertFalse(xml.contains("configMap"));
+        assertTrue(xml.contains("<contentHash>" + YAMLParseCache.contentHash(YAML_CONFIG) + "</contentHash>"));
+    }
+
+    @Test
+    void testLegacyParsedConfigIsDroppedOnLoad() {
+        String legacyXml = """
+                <io.jenkins.plugins.globalyamlproperties.Config>
+                  <name>test</name>
+                  <yamlConfig>version: 1.0</yamlConfig>
+                  <category>example</category>
+                  <configMap class="linked-hash-map">
+                    <entry><string>version</string><double>1.0</double></entry>
+                  </configMap>
+                  <configSource class="io.jenkins.plugins.globalyamlproperties.ConfigSourceManual">
+                    <yamlConfig>version: 1.0</yamlConfig>
+                  </configSource>
+                </io.jenkins.plugins.globalyamlproperties.Config>""";
+        Config config = (Config) Jenkins.XSTREAM2.fromXML(legacyXml);
+        assertTrue(config.isLegacyDataMigrated());
+        assertEquals(YAMLParseCache.contentHash(YAML_CONFIG), config.getContentHash());
+        assertEquals(1.0, config.getConfigMap().get("version"));
+        assertFalse(Jenkins.XSTREAM2.toXML(config).contains("configMap"));
+    }
+
+    @Test
+    void testContentStoreKeepsFetchedDocuments() throws Exception {
+        ConfigSourceSCM source = new ConfigSourceSCM("repo", "owner", "master", "testCreds", "path");
+        ConfigContentStore.get().write(source.getSourceKey(), YAML_CONFIG, "blob");
+
+        ConfigSourceSCM reloaded = new ConfigSourceSCM("repo", "owner", "master", "testCreds", "path");
+        assertEquals(YAML_CONFIG, reloaded.getYamlConfig());
+        assertEquals("blob", reloaded.getBlobSha());
+
+        ConfigContentStore.get().prune(Set.of());
+        assertNull(ConfigContentStore.get().readRef(source.getSourceKey()));
+    }
+
+    @Test
+    void testBinaryCodecRoundTrip() throws Exception {
+        Object tree = YAMLParseCache.parse("""
+                name: test
+                count: 3
+                big: 123456789012345678901234567890
+                ratio: 0.5
+                enabled: true
+                nothing: null
+                items: [a, {b: [1, 2]}]
+                """);
+        assertEquals(tree, YAMLBinaryCodec.decode(YAMLBinaryCodec.encode(tree)));
+    }
+
+    @Test
+    void testBinaryCodecKeepsAliasesShared() throws Exception {
+        // 2^20 leaves once expanded, a few hundred bytes of text
+        StringBuilder yaml = new StringBuilder("l0: &l0 [x, y]\n");
+        for (int level = 1; level <= 20; level++) {
+            yaml.append("l").append(level).append(": &l").append(level)
+                    .append(" [*l").append(level - 1).append(", *l").append(level - 1).append("]\n");
+        }
+        Map<String, Object> tree = YAMLParseCache.parseMap(yaml.toString());
+        byte[] encoded = YAMLBinaryCodec.encode(tree);
+        assertTrue(encoded.length < 1024, "encoded " + encoded.length + " bytes");
+
+        Map<?, ?> decoded = (Map<?, ?>) YAMLBinaryCodec.decode(encoded);
+        List<?> top = (List<?>) decoded.get("l20");
+        assertSame(top.get(0), top.get(1));
+        assertSame(decoded.get("l19"), top.get(0));
+    }
+
     @Test
     void testSerialization() throws Exception {
         GlobalYAMLPropertiesConfiguration globalConfiguration = createTestInstance();
@@ -132,6 +405,44 @@ class GlobalYAMLPropertiesConfigurationTest {
         jenkins.assertLogContains("1.0", completedBuild);
     }
 
+    @Test
+    void testStepCallsAreExposedAsMetrics() throws Exception {
+        createTestInstance();
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "test-metrics-pipeline");
+        job.setDefinition(new CpsFlowDefinition("getGlobalYAMLProperties('test')", true));
+        jenkins.assertBuildStatusSuccess(job.scheduleBuild2(0));
+
+        JSONObject metrics = jenkins.getJSON("manage/globalyamlconfiguration/metrics").getJSONObject();
+        assertTrue(metrics.getJSONObject("counters").getLong("step.getGlobalYAMLProperties.calls") >= 1);
+        assertTrue(metrics.getJSONObject("histograms").getJSONObject("step.getGlobalYAMLProperties.latency").getLong("count") >= 1);
+    }
+
+    @Test
+    void testScriptedPipelineWritesDoNotLeakIntoGlobalConfig() throws Exception {
+        GlobalYAMLPropertiesConfiguration globalConfiguration = GlobalYAMLPropertiesConfiguration.get();
+        List<Config> config = new ArrayList<>();
+        config.add(new Config(NAME, CATEGORY, new ConfigSourceManual("version: 1.0\nnested:\n  key: value\n  items: [a, b]")));
+        globalConfiguration.setConfigs(config);
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "test-scripted-pipeline");
+        String pipelineScript
+                = """
+                node {
+                  def props = getGlobalYAMLProperties("test")
+                  props.version = 2.0
+                  props.nested.key = 'changed'
+                  props.nested.items << 'c'
+                  println "local: ${props.nested.key} ${props.nested.items}"
+                }""";
+        job.setDefinition(new CpsFlowDefinition(pipelineScript, true));
+        WorkflowRun completedBuild = jenkins.assertBuildStatusSuccess(job.scheduleBuild2(0));
+        jenkins.assertLogContains("local: changed [a, b, c]", completedBuild);
+
+        Map<String, Object> globalMap = globalConfiguration.getConfigByName(NAME).getConfigMap();
+        assertEquals(1.0, globalMap.get("version"));
+        assertEquals("value", ((Map<?, ?>) globalMap.get("nested")).get("key"));
+        assertEquals(List.of("a", "b"), ((Map<?, ?>) globalMap.get("nested")).get("items"));
+    }
+
     @Test
     void testScriptedPipelineEmptyConfig() throws Exception {
         String agentLabel = "my-agent";
@@ -151,6 +462,15 @@ class GlobalYAMLPropertiesConfigurationTest {
         jenkins.assertLogContains("Warning: Configuration is empty", completedBuild);
     }
 
+    @Test
+    void testScriptedPipelineWithoutAnyConfig() throws Exception {
+        GlobalYAMLPropertiesConfiguration.get().setConfigs(new ArrayList<>());
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "test-scripted-pipeline");
+        job.setDefinition(new CpsFlowDefinition("println getGlobalYAMLProperties().version", true));
+        WorkflowRun completedBuild = jenkins.assertBuildStatus(Result.FAILURE, job.scheduleBuild2(0));
+        jenkins.assertLogContains("No global configuration defined", completedBuild);
+    }
+
     @Test
     void testScriptedPipelineDefaultConfig() throws Exception {
         String agentLabel = "my-agent";
@@ -187,6 +507,28 @@ class GlobalYAMLPropertiesConfigurationTest {
         jenkins.assertLogContains(CATEGORY, completedBuild);
     }
 
+    @Test
+    void testScriptedPipelineMayModifyReturnedNameLists() throws Exception {
+        GlobalYAMLPropertiesConfiguration globalConfiguration = createMultipleTestInstances();
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "test-scripted-pipeline");
+        String pipelineScript
+                = """
+                def names = getGlobalYAMLConfigNames()
+                names << 'extra'
+                names.remove(0)
+                def byCategory = getGlobalYAMLConfigNamesByCategory('%s')
+                byCategory.clear()
+                def categories = getGlobalYAMLCategories()
+                categories.add('other')
+                println "names: ${names} ${byCategory} ${categories}"
+                """.formatted(CATEGORY);
+        job.setDefinition(new CpsFlowDefinition(pipelineScript, true));
+        WorkflowRun completedBuild = jenkins.assertBuildStatusSuccess(job.scheduleBuild2(0));
+        jenkins.assertLogContains("names: [test1, test2, extra] [] [example, other]", completedBuild);
+        assertEquals(List.of(NAME + "0", NAME + "1", NAME + "2"), globalConfiguration.getConfigNames());
+        assertEquals(List.of(CATEGORY), globalConfiguration.getCategories());
+    }
+
     @Test
     void testScriptedPipelineGetConfigNamesByCategory() throws Exception {
         String agentLabel = "my-agent";
@@ -233,6 +575,109 @@ class GlobalYAMLPropertiesConfigurationTest {
         assertEquals(1.0, property.getParsedConfig().get("version"));
     }
 
+    @Test
+    void testIdenticalYamlIsParsedOnce() {
+        Map<String, Object> first = new PipelineYAMLJobProperty(YAML_CONFIG).getParsedConfig();
+        Map<String, Object> second = new MultibranchYAMLJobProperty(YAML_CONFIG).getParsedConfig();
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> first.put("version", 2.0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSetsDatesAndBinaryValuesDoNotLeakFromSharedTree() {
+        String yaml = "tags: !!set {a, b}\nreleased: 2024-01-02\ndata: !!binary AQID\nlist: [2024-01-02]\n";
+        Map<String, Object> shared = YAMLParseCache.parseMap(yaml);
+        assertThrows(UnsupportedOperationException.class, () -> ((Set<?>) shared.get("tags")).clear());
+
+        CopyOnWriteYAMLMap view = new CopyOnWriteYAMLMap(shared);
+        ((Set<Object>) view.get("tags")).add("c");
+        ((Date) view.get("released")).setTime(0);
+        ((byte[]) view.get("data"))[0] = 9;
+        ((Date) ((List<?>) view.get("list")).get(0)).setTime(0);
+        assertEquals(Set.of("a", "b", "c"), view.get("tags"));
+        assertEquals(0, ((Date) view.get("released")).getTime());
+
+        Map<String, Object> fresh = YAMLParseCache.parseMap(yaml);
+        assertSame(shared, fresh);
+        assertEquals(Set.of("a", "b"), fresh.get("tags"));
+        assertNotEquals(0, ((Date) fresh.get("released")).getTime());
+        assertEquals(1, ((byte[]) fresh.get("data"))[0]);
+        assertNotEquals(0, ((Date) ((List<?>) fresh.get("list")).get(0)).getTime());
+    }
+
+    @Test
+    void testMergedConfigurationIsCachedUntilLayerChanges() throws Exception {
+        GlobalYAMLPropertiesConfiguration globalConfiguration = GlobalYAMLPropertiesConfiguration.get();
+        List<Config> config = new ArrayList<>();
+        config.add(new Config(NAME, CATEGORY, new ConfigSourceManual("version: 1.0\nnested:\n  a: global\n  b: global")));
+        globalConfiguration.setConfigs(config);
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "test-merged-pipeline");
+        job.addProperty(new PipelineYAMLJobProperty("nested:\n  b: local"));
+        job.setDefinition(new CpsFlowDefinition("""
+                def props = getMergedYAMLProperties('test')
+                println "merged: ${props.version} ${props.nested.a} ${props.nested.b}"
+                """, true));
+        WorkflowRun completedBuild = jenkins.assertBuildStatusSuccess(job.scheduleBuild2(0));
+        jenkins.assertLogContains("merged: 1.0 global local", completedBuild);
+
+        Config global = globalConfiguration.getConfigByName(NAME);
+        Map<String, Object> cached = MergedYAMLConfigCache.get().resolve(job, global);
+        assertSame(cached, MergedYAMLConfigCache.get().getIfPresent(job, global));
+
+        job.removeProperty(PipelineYAMLJobProperty.class);
+        job.addProperty(new PipelineYAMLJobProperty("nested:\n  b: changed"));
+        assertNull(MergedYAMLConfigCache.get().getIfPresent(job, global));
+        assertEquals("changed", ((Map<?, ?>) MergedYAMLConfigCache.get().resolve(job, global).get("nested")).get("b"));
+    }
+
+    @Test
+    void testMergedConfigurationIsCachedPerGlobalConfig() throws Exception {
+        GlobalYAMLPropertiesConfiguration globalConfiguration = GlobalYAMLPropertiesConfiguration.get();
+        List<Config> config = new ArrayList<>();
+        config.add(new Config(NAME + "0", CATEGORY, new ConfigSourceManual("source: first")));
+        config.add(new Config(NAME + "1", CATEGORY, new ConfigSourceManual("source: second")));
+        globalConfiguration.setConfigs(config);
+        Folder folder = jenkins.createProject(Folder.class, "merged-folder");
+        WorkflowJob job = folder.createProject(WorkflowJob.class, "job");
+        job.addProperty(new PipelineYAMLJobProperty("local: true"));
+
+        Config first = globalConfiguration.getConfigByName(NAME + "0");
+        Config second = globalConfiguration.getConfigByName(NAME + "1");
+        Map<String, Object> firstMerged = MergedYAMLConfigCache.get().resolve(job, first);
+        Map<String, Object> secondMerged = MergedYAMLConfigCache.get().resolve(job, second);
+        assertEquals("first", firstMerged.get("source"));
+        assertEquals("second", secondMerged.get("source"));
+        assertSame(firstMerged, MergedYAMLConfigCache.get().getIfPresent(job, first));
+        assertSame(secondMerged, MergedYAMLConfigCache.get().getIfPresent(job, second));
+
+        MergedYAMLConfigCache.get().invalidate(folder.getFullName());
+        assertNull(MergedYAMLConfigCache.get().getIfPresent(job, first));
+        assertNull(MergedYAMLConfigCache.get().getIfPresent(job, second));
+    }
+
+    @Test
+    void testFolderConfigurationIsInheritedAtAnyDepth() throws Exception {
+        Folder outer = jenkins.createProject(Folder.class, "outer");
+        outer.addProperty(new FolderYAMLProperty("team: platform\nnested:\n  a: outer\n  b: outer"));
+        Folder inner = outer.createProject(Folder.class, "inner");
+        inner.addProperty(new FolderYAMLProperty("nested:\n  b: inner"));
+        WorkflowJob job = inner.createProject(WorkflowJob.class, "job");
+        job.addProperty(new PipelineYAMLJobProperty("version: 1.0"));
+        job.setDefinition(new CpsFlowDefinition("""
+                def props = getLocalYAMLProperties()
+                println "local: ${props.team} ${props.nested.a} ${props.nested.b} ${props.version}"
+                """, true));
+        WorkflowRun completedBuild = jenkins.assertBuildStatusSuccess(job.scheduleBuild2(0));
+        jenkins.assertLogContains("local: platform outer inner 1.0", completedBuild);
+
+        Map<String, Object> resolved = LocalYAMLResolver.get().resolve(job);
+        assertSame(resolved, LocalYAMLResolver.get().getIfPresent(job));
+        outer.getProperties().replace(new FolderYAMLProperty("team: changed"));
+        assertNull(LocalYAMLResolver.get().getIfPresent(job));
+        assertEquals("changed", LocalYAMLResolver.get().resolve(job).get("team"));
+    }
+
     @Test
     void testScriptedPipelineLocalConfiguration() throws Exception {
         String agentLabel = "my-agent";
@@ -281,4 +726,238 @@ class GlobalYAMLPropertiesConfigurationTest {
         jenkins.assertLogContains(CATEGORY + "2", completedBuild);
     }
 
+    @Test
+    void testGitSourcesShareOneFetchPerRefresh(@TempDir Path remote) throws Exception {
+        try (Git git = Git.init().setDirectory(remote.toFile()).setInitialBranch("main").call()) {
+            Files.writeString(remote.resolve("first.yaml"), "value: 1");
+            Files.writeString(remote.resolve("second.yaml"), "other: a");
+            commit(git);
+            String url = "file://" + remote.toAbsolutePath();
+            Config first = new Config("first", CATEGORY, new ConfigSourceGit(url, "main", "first.yaml"));
+            Config second = new Config("second", CATEGORY, new ConfigSourceGit(url, "main", "/second.yaml"));
+            GitMirror mirror = GitMirror.of(url);
+
+            try (GitHubSession session = new GitHubSession()) {
+                assertTrue(first.refreshConfiguration(session));
+                assertTrue(second.refreshConfiguration(session));
+            }
+            assertEquals(1, mirror.getFetchCount());
+            assertEquals(1, first.getConfigMap().get("value"));
+            assertEquals("a", second.getConfigMap().get("other"));
+
+            Files.writeString(remote.resolve("first.yaml"), "value: 2");
+            commit(git);
+            try (GitHubSession session = new GitHubSession()) {
+                assertTrue(first.refreshConfiguration(session));
+                assertFalse(second.refreshConfiguration(session));
+            }
+            assertEquals(2, mirror.getFetchCount());
+            assertEquals(2, first.getConfigMap().get("value"));
+        }
+    }
+
+    @Test
+    void testGitDirectoryFansOutIntoConfigPerFile(@TempDir Path remote) throws Exception {
+        try (Git git = Git.init().setDirectory(remote.toFile()).setInitialBranch("main").call()) {
+            Files.createDirectories(remote.resolve("configs/team"));
+            Files.writeString(remote.resolve("configs/a.yaml"), "value: a");
+            Files.writeString(remote.resolve("configs/b.yml"), "value: b");
+            Files.writeString(remote.resolve("configs/team/c.yaml"), "value: c");
+            Files.writeString(remote.resolve("configs/README.md"), "not a config");
+            commit(git);
+            String url = "file://" + remote.toAbsolutePath();
+            GlobalYAMLPropertiesConfiguration globalConfiguration = GlobalYAMLPropertiesConfiguration.get();
+            Config services = new Config("services", CATEGORY, new ConfigSourceGitDirectory(url, "main", "configs/**.{yaml,yml}"));
+            globalConfiguration.setConfigs(new ArrayList<>(List.of(services)));
+
+            assertTrue(services.refreshConfiguration());
+            assertEquals(List.of("services", "services/a", "services/b", "services/team/c"), globalConfiguration.getConfigNames());
+            assertEquals(List.of("services", "services/a", "services/b", "services/team/c"), globalConfiguration.getConfigNamesByCategory(CATEGORY));
+            Config a = globalConfiguration.getConfigByName("services/a");
+            Config c = globalConfiguration.getConfigByName("services/team/c");
+            assertEquals("c", c.getConfigMap().get("value"));
+
+            Files.writeString(remote.resolve("configs/team/c.yaml"), "value: changed");
+            git.rm().addFilepattern("configs/b.yml").call();
+            commit(git);
+            String hashOfA = a.getContentHash();
+            assertTrue(services.refreshConfiguration());
+            assertEquals(List.of("services", "services/a", "services/team/c"), globalConfiguration.getConfigNames());
+            assertSame(a, globalConfiguration.getConfigByName("services/a"));
+            assertEquals(hashOfA, a.getContentHash());
+            assertSame(c, globalConfiguration.getConfigByName("services/team/c"));
+            assertEquals("changed", c.getConfigMap().get("value"));
+            assertFalse(services.refreshConfiguration());
+        }
+    }
+
+    @Test
+    void testGitDirectoryLeavesOutInvalidFiles(@TempDir Path remote) throws Exception {
+        try (Git git = Git.init().setDirectory(remote.toFile()).setInitialBranch("main").call()) {
+            Files.createDirectories(remote.resolve("configs"));
+            Files.writeString(remote.resolve("configs/good.yaml"), "value: good");
+            Files.writeString(remote.resolve("configs/list.yaml"), "- not a map");
+            Files.writeString(remote.resolve("configs/broken.yaml"), "value: [unclosed");
+            commit(git);
+            GlobalYAMLPropertiesConfiguration globalConfiguration = GlobalYAMLPropertiesConfiguration.get();
+            Config services = new Config("services", CATEGORY,
+                    new ConfigSourceGitDirectory("file://" + remote.toAbsolutePath(), "main", "configs"));
+            globalConfiguration.setConfigs(new ArrayList<>(List.of(services)));
+
+            assertTrue(services.refreshConfiguration());
+            assertEquals(List.of("services", "services/good"), globalConfiguration.getConfigNames());
+            assertFalse(globalConfiguration.getConfigByName("services/good").isParsed());
+            assertEquals("good", globalConfiguration.getConfigByName("services/good").getConfigMap().get("value"));
+            Map<?, ?> errors = (Map<?, ?>) services.getConfigMap().get("errors");
+            assertEquals(Set.of("configs/list.yaml", "configs/broken.yaml"), errors.keySet());
+
+            // Rebuilding the registry, as saving does, is not affected by the invalid files
+            globalConfiguration.setConfigs(new ArrayList<>(globalConfiguration.getConfigs()));
+            assertEquals(List.of("services", "services/good"), globalConfiguration.getConfigNames());
+        }
+    }
+
+    @Test
+    void testRefreshCycleEndsWhenSourceNeverReturns() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Config> configs = List.of(
+                new Config("hanging", CATEGORY, new HangingSource(release)),
+                new Config("queued", CATEGORY, new ConfigSourceManual(YAML_CONFIG)));
+        try {
+            long started = System.nanoTime();
+            // One worker: the hanging fetch ignores its cancellation, so the queued config never gets to start
+            ConfigRefreshEngine.RefreshSummary summary = new ConfigRefreshEngine(1, 1).refresh(configs);
+            assertEquals(0, summary.refreshed());
+            assertEquals(2, summary.timedOut());
+            assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(30));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testRefreshesOfSameSourceDoNotOverlap() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        // Two configs of one source, as left behind by a save while a refresh is running
+        List<Config> configs = List.of(
+                new Config("first", CATEGORY, new SlowSource(active, overlaps)),
+                new Config("second", CATEGORY, new SlowSource(active, overlaps)));
+        ConfigRefreshEngine.RefreshSummary summary = new ConfigRefreshEngine(2, 30).refresh(configs);
+        assertEquals(2, summary.refreshed());
+        assertEquals(0, overlaps.get());
+    }
+
+    private static final class SlowSource implements RemoteConfigSource {
+        private final AtomicInteger active;
+        private final AtomicInteger overlaps;
+
+        private SlowSource(AtomicInteger active, AtomicInteger overlaps) {
+            this.active = active;
+            this.overlaps = overlaps;
+        }
+
+        @Override
+        public String getYamlConfig() {
+            return YAML_CONFIG;
+        }
+
+        @Override
+        public String getSourceKey() {
+            return "slow";
+        }
+
+        @Override
+        public String getCredentialsId() {
+            return null;
+        }
+
+        @Override
+        public int getRefreshInterval() {
+            return 0;
+        }
+
+        @Override
+        public void hydrate() {
+        }
+
+        @Override
+        public boolean fetchConfiguration(GitHubSession session) throws InterruptedIOException {
+            if (active.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            } finally {
+                active.decrementAndGet();
+            }
+            return true;
+        }
+
+        @Override
+        public Descriptor<ConfigSource> getDescriptor() {
+            return null;
+        }
+    }
+
+    /**
+     * Behaves like a fetch blocked on a socket read, which cancelling the worker does not interrupt.
+     */
+    private static final class HangingSource implements RemoteConfigSource {
+        private final CountDownLatch release;
+
+        private HangingSource(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String getYamlConfig() {
+            return null;
+        }
+
+        @Override
+        public String getSourceKey() {
+            return "hanging";
+        }
+
+        @Override
+        public String getCredentialsId() {
+            return null;
+        }
+
+        @Override
+        public int getRefreshInterval() {
+            return 0;
+        }
+
+        @Override
+        public void hydrate() {
+        }
+
+        @Override
+        public boolean fetchConfiguration(GitHubSession session) {
+            while (true) {
+                try {
+                    release.await();
+                    return false;
+                } catch (InterruptedException e) {
+                    // Ignored, as by a blocking read
+                }
+            }
+        }
+
+        @Override
+        public Descriptor<ConfigSource> getDescriptor() {
+            return null;
+        }
+    }
+
+    private static void commit(Git git) throws Exception {
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage("Update").setAuthor("test", "test@example.com").setCommitter("test", "test@example.com")
+                .setSign(false).call();
+    }
+
 }
@@ -0,0 +1,64 @@
+package io.jenkins.plugins.globalyamlproperties.scmpolling;
+
+import io.jenkins.plugins.globalyamlproperties.ConfigSourceSCM;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GitHubPushEventTest {
+
+    private static final String SECRET = "s3cr3t";
+    private static final String PUSH_PAYLOAD = """
+            {
+              "ref": "refs/heads/main",
+              "repository": {"name": "configs", "owner": {"login": "acme"}},
+              "commits": [
+                {"added": [], "modified": ["env/prod.yaml"], "removed": []},
+                {"added": ["env/new.yaml"], "modified": [], "removed": ["env/old.yaml"]}
+              ]
+            }""";
+
+    private static ConfigSourceSCM source(String ref, String path) {
+        return new ConfigSourceSCM("configs", "acme", ref, "creds", path);
+    }
+
+    @Test
+    void testMatchesByOwnerRepositoryRefAndPath() {
+        GitHubPushEvent event = GitHubPushEvent.parse(PUSH_PAYLOAD);
+        assertTrue(event.affects(source("main", "env/prod.yaml")));
+        assertTrue(event.affects(source("refs/heads/main", "/env/old.yaml")));
+        assertFalse(event.affects(source("main", "env/dev.yaml")));
+        assertFalse(event.affects(source("develop", "env/prod.yaml")));
+        assertFalse(event.affects(new ConfigSourceSCM("other", "acme", "main", "creds", "env/prod.yaml")));
+    }
+
+    @Test
+    void testUnknownChangedFilesMatchWholeRef() {
+        GitHubPushEvent event = GitHubPushEvent.parse("""
+                {"ref": "refs/heads/main", "forced": true, "commits": [],
+                 "repository": {"name": "configs", "owner": {"name": "acme"}}}""");
+        assertTrue(event.affects(source("main", "env/anything.yaml")));
+    }
+
+    @Test
+    void testSignatureVerification() {
+        byte[] body = PUSH_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        String signature = GitHubPushEvent.sign(SECRET, body);
+        assertTrue(GitHubPushEvent.isSignatureValid(SECRET, body, signature));
+        assertFalse(GitHubPushEvent.isSignatureValid("other", body, signature));
+        assertFalse(GitHubPushEvent.isSignatureValid(SECRET, "{}".getBytes(StandardCharsets.UTF_8), signature));
+        assertFalse(GitHubPushEvent.isSignatureValid(SECRET, body, null));
+        assertFalse(GitHubPushEvent.isSignatureValid("", body, signature));
+    }
+
+    @Test
+    void testFormEncodedPayload() {
+        String form = "payload=%7B%22ref%22%3A%22refs%2Fheads%2Fmain%22%7D";
+        assertEquals("{\"ref\":\"refs/heads/main\"}",
+                GitHubPushWebhook.extractPayload("application/x-www-form-urlencoded", form.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,49 @@
+package io.jenkins.plugins.globalyamlproperties.scmpolling;
+
+import io.jenkins.plugins.globalyamlproperties.Config;
+import io.jenkins.plugins.globalyamlproperties.ConfigSourceManual;
+import io.jenkins.plugins.globalyamlproperties.ConfigSourceSCM;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimitBudgetTest {
+
+    private static final long NOW = 1_000_000_000L;
+
+    private static List<Config> configs(String credentialsId, int count) {
+        List<Config> configs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            configs.add(new Config("config" + i, "category", new ConfigSourceSCM("configs", "acme", "main", credentialsId, "file" + i + ".yaml")));
+        }
+        return configs;
+    }
+
+    @Test
+    void testEveryPollCountsAllOfItsRequests() {
+        RateLimitBudget budget = new RateLimitBudget();
+        // 100 left of 100, 10 reserved: 90 requests are enough for 30 polls only
+        budget.record("creds", 100, 100, NOW + 60_000);
+        assertEquals(90 / RateLimitBudget.REQUESTS_PER_POLL, budget.admit(configs("creds", 50), NOW).size());
+    }
+
+    @Test
+    void testReserveIsKeptUntilReset() {
+        RateLimitBudget budget = new RateLimitBudget();
+        budget.record("creds", 10, 100, NOW + 60_000);
+        assertEquals(0, budget.admit(configs("creds", 5), NOW).size());
+        assertEquals(5, budget.admit(configs("creds", 5), NOW + 60_000).size());
+    }
+
+    @Test
+    void testSourcesWithoutKnownQuotaAreAdmitted() {
+        RateLimitBudget budget = new RateLimitBudget();
+        budget.record("creds", 10, 100, NOW + 60_000);
+        List<Config> configs = new ArrayList<>(configs("other", 3));
+        configs.add(new Config("manual", "category", new ConfigSourceManual("a: 1")));
+        assertEquals(4, budget.admit(configs, NOW).size());
+    }
+}
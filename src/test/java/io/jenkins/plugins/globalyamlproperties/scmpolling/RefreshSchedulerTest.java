@@ -0,0 +1,98 @@
+package io.jenkins.plugins.globalyamlproperties.scmpolling;
+
+import io.jenkins.plugins.globalyamlproperties.Config;
+import io.jenkins.plugins.globalyamlproperties.ConfigSourceSCM;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefreshSchedulerTest {
+
+    private static final long INTERVAL = TimeUnit.MINUTES.toMillis(60);
+    private static final long NOW = 1_000_000_000L;
+
+    private static Config config(String path) {
+        ConfigSourceSCM source = new ConfigSourceSCM("configs", "acme", "main", "creds", path);
+        source.setRefreshInterval(60);
+        return new Config(path, "category", source);
+    }
+
+    private static boolean dueAt(RefreshScheduler scheduler, Config config, long time) {
+        return !scheduler.dueConfigs(List.of(config), time).isEmpty();
+    }
+
+    @Test
+    void testFailureBackoffStartsAtIntervalAndDoubles() {
+        assertEquals(INTERVAL, RefreshScheduler.failureBackoff(INTERVAL, RefreshScheduler.FAILURES_BEFORE_OPEN));
+        assertEquals(2 * INTERVAL, RefreshScheduler.failureBackoff(INTERVAL, RefreshScheduler.FAILURES_BEFORE_OPEN + 1));
+        assertEquals(4 * INTERVAL, RefreshScheduler.failureBackoff(INTERVAL, RefreshScheduler.FAILURES_BEFORE_OPEN + 2));
+        assertEquals(RefreshScheduler.FAILURE_BACKOFF_MAX, RefreshScheduler.failureBackoff(INTERVAL, 1000));
+        long day = TimeUnit.DAYS.toMillis(1);
+        assertEquals(day, RefreshScheduler.failureBackoff(day, RefreshScheduler.FAILURES_BEFORE_OPEN + 5));
+    }
+
+    @Test
+    void testCircuitBreakerBacksOffAndClosesOnSuccess() {
+        RefreshScheduler scheduler = new RefreshScheduler();
+        Config config = config("env/prod.yaml");
+        assertTrue(dueAt(scheduler, config, NOW));
+
+        long now = NOW;
+        for (int i = 0; i < RefreshScheduler.FAILURES_BEFORE_OPEN + 1; i++) {
+            scheduler.recordFailure(config, now);
+        }
+        // The fourth failure in a row waits twice the interval, never less than a normal poll
+        assertFalse(dueAt(scheduler, config, now + (long) (2 * INTERVAL * (1 - RefreshScheduler.JITTER)) - 1));
+        assertTrue(dueAt(scheduler, config, now + (long) (2 * INTERVAL * (1 + RefreshScheduler.JITTER)) + 1));
+
+        now += 3 * INTERVAL;
+        scheduler.recordResult(config, true, now);
+        scheduler.recordFailure(config, now);
+        // A success resets the count, the next failure is retried after the base interval only
+        assertTrue(dueAt(scheduler, config, now + (long) (INTERVAL * (1 + RefreshScheduler.JITTER)) + 1));
+    }
+
+    @Test
+    void testJitterStaysWithinBounds() {
+        for (int i = 0; i < 1000; i++) {
+            long jittered = RefreshScheduler.jittered(INTERVAL);
+            assertTrue(jittered >= INTERVAL * (1 - RefreshScheduler.JITTER), "jittered " + jittered);
+            assertTrue(jittered <= INTERVAL * (1 + RefreshScheduler.JITTER), "jittered " + jittered);
+        }
+        assertEquals(1, RefreshScheduler.jittered(0));
+    }
+
+    @Test
+    void testUnchangedPollsBackOffUpToMaxFactor() {
+        ConfigSourceSCM source = (ConfigSourceSCM) config("env/prod.yaml").getConfigSource();
+        for (int polls = 0; polls < RefreshScheduler.UNCHANGED_POLLS_BEFORE_BACKOFF; polls++) {
+            assertEquals(INTERVAL, RefreshScheduler.currentInterval(source, polls));
+        }
+        assertEquals(2 * INTERVAL, RefreshScheduler.currentInterval(source, RefreshScheduler.UNCHANGED_POLLS_BEFORE_BACKOFF));
+        assertEquals(4 * INTERVAL, RefreshScheduler.currentInterval(source, RefreshScheduler.UNCHANGED_POLLS_BEFORE_BACKOFF + 1));
+        assertEquals(RefreshScheduler.MAX_BACKOFF_FACTOR * INTERVAL, RefreshScheduler.currentInterval(source, 100));
+    }
+
+    @Test
+    void testMarkStaleMakesSourceDueAndResetsBackoff() {
+        RefreshScheduler scheduler = new RefreshScheduler();
+        Config config = config("env/prod.yaml");
+        long now = NOW;
+        for (int i = 0; i < 10; i++) {
+            scheduler.recordResult(config, false, now);
+        }
+        assertFalse(dueAt(scheduler, config, now + (long) (INTERVAL * (1 + RefreshScheduler.JITTER)) + 1));
+
+        now += TimeUnit.MINUTES.toMillis(5);
+        scheduler.markStale(config, now);
+        assertTrue(dueAt(scheduler, config, now));
+
+        scheduler.recordResult(config, false, now);
+        assertTrue(dueAt(scheduler, config, now + (long) (INTERVAL * (1 + RefreshScheduler.JITTER)) + 1));
+    }
+}